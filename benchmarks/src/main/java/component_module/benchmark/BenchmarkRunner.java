@@ -0,0 +1,42 @@
+package component_module.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+
+/**
+ * Run the benchmarks once single threaded and once with several threads contending on the same component manager,
+ * writing the results of each run to a JSON file which can be compared between releases.
+ * <p>
+ * Usage: {@code java -cp target/benchmarks.jar component_module.benchmark.BenchmarkRunner [include regexp]
+ * [contended thread count] [output directory]}
+ *
+ * @author Hamza Ouni
+ */
+public class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : "component_module\\.benchmark\\..*";
+        int contendedThreads = args.length > 1 ? Integer.parseInt(args[1])
+                : Math.max(4, Runtime.getRuntime().availableProcessors());
+        File outputDirectory = new File(args.length > 2 ? args[2] : "target/jmh-results");
+        outputDirectory.mkdirs();
+
+        for (int threads : new int[] {1, contendedThreads}) {
+            Options options = new OptionsBuilder()
+                    .include(include)
+                    .threads(threads)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result(new File(outputDirectory, String.format("results-%d-threads.json", threads)).getPath())
+                    .build();
+            new Runner(options).run();
+        }
+    }
+}
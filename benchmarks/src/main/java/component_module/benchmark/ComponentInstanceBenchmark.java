@@ -0,0 +1,104 @@
+package component_module.benchmark;
+
+import component_module.ComponentInstantiationStrategy;
+import component_module.DefaultComponentDescriptor;
+import component_module.DefaultComponentDependency;
+import component_module.DefaultComponentManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of getting a component instance depending on its instantiation strategy. The per lookup component has two
+ * singleton dependencies so that the injection is part of the measure.
+ *
+ * @author Hamza Ouni
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ComponentInstanceBenchmark {
+
+    public interface Service {
+    }
+
+    public static class ServiceImpl implements Service {
+        Service first;
+
+        Service second;
+    }
+
+    private DefaultComponentManager manager;
+
+    @Setup
+    public void setUp() throws Exception {
+        this.manager = new DefaultComponentManager();
+
+        register("first", ComponentInstantiationStrategy.SINGLETON);
+        register("second", ComponentInstantiationStrategy.SINGLETON);
+
+        DefaultComponentDescriptor<Service> descriptor = createDescriptor("singleton",
+                ComponentInstantiationStrategy.SINGLETON);
+        this.manager.registerComponent(descriptor);
+
+        descriptor = createDescriptor("perlookup", ComponentInstantiationStrategy.PER_LOOKUP);
+        descriptor.addComponentDependency(createDependency("first"));
+        descriptor.addComponentDependency(createDependency("second"));
+        this.manager.registerComponent(descriptor);
+
+        descriptor = createDescriptor("pooled", ComponentInstantiationStrategy.POOLED);
+        descriptor.addComponentDependency(createDependency("first"));
+        descriptor.addComponentDependency(createDependency("second"));
+        this.manager.registerComponent(descriptor);
+    }
+
+    private void register(String hint, ComponentInstantiationStrategy strategy) throws Exception {
+        this.manager.registerComponent(createDescriptor(hint, strategy));
+    }
+
+    private DefaultComponentDescriptor<Service> createDescriptor(String hint, ComponentInstantiationStrategy strategy) {
+        DefaultComponentDescriptor<Service> descriptor = new DefaultComponentDescriptor<>();
+        descriptor.setRoleType(Service.class);
+        descriptor.setRoleHint(hint);
+        descriptor.setImplementation(ServiceImpl.class);
+        descriptor.setInstantiationStrategy(strategy);
+        return descriptor;
+    }
+
+    private DefaultComponentDependency<Service> createDependency(String name) {
+        DefaultComponentDependency<Service> dependency = new DefaultComponentDependency<>();
+        dependency.setName(name);
+        dependency.setRoleType(Service.class);
+        dependency.setRoleHint(name);
+        return dependency;
+    }
+
+    @Benchmark
+    public Object singleton() throws Exception {
+        return this.manager.getInstance(Service.class, "singleton");
+    }
+
+    @Benchmark
+    public Object perLookup() throws Exception {
+        return this.manager.getInstance(Service.class, "perlookup");
+    }
+
+    @Benchmark
+    public Object pooled() throws Exception {
+        Object instance = this.manager.borrowInstance(Service.class, "pooled");
+        this.manager.returnInstance(Service.class, "pooled", instance);
+        return instance;
+    }
+}
@@ -0,0 +1,104 @@
+package component_module.benchmark;
+
+import component_module.ComponentInstantiationStrategy;
+import component_module.DefaultComponentDescriptor;
+import component_module.DefaultComponentManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of finding a registered component, for Class and ParameterizedType roles.
+ * The parameterized role used for lookups is an equal but distinct instance from the registered one, as it happens
+ * when it comes from another field.
+ *
+ * @author Hamza Ouni
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ComponentLookupBenchmark {
+
+    public interface Service {
+    }
+
+    public static class ServiceImpl implements Service {
+    }
+
+    static List<Service> registeredRole;
+
+    static List<Service> lookupRole;
+
+    private DefaultComponentManager manager;
+
+    private Type parameterizedRole;
+
+    @Setup
+    public void setUp() throws Exception {
+        this.manager = new DefaultComponentManager();
+
+        // Some noise so that the registry isn't trivially small
+        for (int i = 0; i < 1000; ++i) {
+            register(Service.class, "hint" + i);
+        }
+        register(Service.class, "default");
+        register(Service.class, "named");
+
+        register(ComponentLookupBenchmark.class.getDeclaredField("registeredRole").getGenericType(), "default");
+        register(ComponentLookupBenchmark.class.getDeclaredField("registeredRole").getGenericType(), "named");
+        this.parameterizedRole = ComponentLookupBenchmark.class.getDeclaredField("lookupRole").getGenericType();
+    }
+
+    private void register(Type role, String hint) throws Exception {
+        DefaultComponentDescriptor<Service> descriptor = new DefaultComponentDescriptor<>();
+        descriptor.setRoleType(role);
+        descriptor.setRoleHint(hint);
+        descriptor.setImplementation(ServiceImpl.class);
+        descriptor.setInstantiationStrategy(ComponentInstantiationStrategy.SINGLETON);
+        this.manager.registerComponent(descriptor);
+    }
+
+    @Benchmark
+    public boolean classRoleDefaultHint() {
+        return this.manager.hasComponent(Service.class);
+    }
+
+    @Benchmark
+    public boolean classRoleNamedHint() {
+        return this.manager.hasComponent(Service.class, "named");
+    }
+
+    @Benchmark
+    public boolean parameterizedRoleDefaultHint() {
+        return this.manager.hasComponent(this.parameterizedRole);
+    }
+
+    @Benchmark
+    public boolean parameterizedRoleNamedHint() {
+        return this.manager.hasComponent(this.parameterizedRole, "named");
+    }
+
+    @Benchmark
+    public Object classRoleSingletonInstance() throws Exception {
+        return this.manager.getInstance(Service.class);
+    }
+
+    @Benchmark
+    public Object parameterizedRoleSingletonInstance() throws Exception {
+        return this.manager.getInstance(this.parameterizedRole, "named");
+    }
+}
@@ -0,0 +1,98 @@
+package component_module.benchmark;
+
+import component_module.ComponentInstantiationStrategy;
+import component_module.DefaultComponentDescriptor;
+import component_module.DefaultComponentManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cost of modifying the registry and of listing the components of a role, which has to reflect the modifications.
+ * Each thread registers its own component so that threads contend on the role and not on a single entry.
+ *
+ * @author Hamza Ouni
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ComponentRegistrationBenchmark {
+
+    public interface Service {
+    }
+
+    public static class ServiceImpl implements Service {
+    }
+
+    /**
+     * The component registered by each thread.
+     */
+    @State(Scope.Thread)
+    public static class ThreadComponent {
+        private static final AtomicInteger COUNTER = new AtomicInteger();
+
+        DefaultComponentDescriptor<Service> descriptor;
+
+        @Setup
+        public void setUp() {
+            this.descriptor = createDescriptor("thread" + COUNTER.getAndIncrement());
+        }
+    }
+
+    private DefaultComponentManager manager;
+
+    @Setup
+    public void setUp() throws Exception {
+        this.manager = new DefaultComponentManager();
+
+        for (int i = 0; i < 100; ++i) {
+            this.manager.registerComponent(createDescriptor("hint" + i));
+        }
+    }
+
+    private static DefaultComponentDescriptor<Service> createDescriptor(String hint) {
+        DefaultComponentDescriptor<Service> descriptor = new DefaultComponentDescriptor<>();
+        descriptor.setRoleType(Service.class);
+        descriptor.setRoleHint(hint);
+        descriptor.setImplementation(ServiceImpl.class);
+        descriptor.setInstantiationStrategy(ComponentInstantiationStrategy.SINGLETON);
+        return descriptor;
+    }
+
+    @Benchmark
+    public void registerUnregister(ThreadComponent component) throws Exception {
+        this.manager.registerComponent(component.descriptor);
+        this.manager.unregisterComponent(Service.class, component.descriptor.getRoleHint());
+    }
+
+    @Benchmark
+    public void register(ThreadComponent component) throws Exception {
+        // Replaces the previous registration
+        this.manager.registerComponent(component.descriptor);
+    }
+
+    @Benchmark
+    public List<?> descriptorList() {
+        return this.manager.getComponentDescriptorList(Service.class);
+    }
+
+    @Benchmark
+    public List<?> descriptorListAfterRegistration(ThreadComponent component) throws Exception {
+        this.manager.registerComponent(component.descriptor);
+        return this.manager.getComponentDescriptorList(Service.class);
+    }
+}
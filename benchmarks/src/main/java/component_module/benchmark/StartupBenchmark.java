@@ -0,0 +1,99 @@
+package component_module.benchmark;
+
+import component_module.ComponentInstantiationStrategy;
+import component_module.DefaultComponentDescriptor;
+import component_module.DefaultComponentDependency;
+import component_module.EmbedComponentManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of booting an {@link EmbedComponentManager}: registering all the components and creating all the singletons.
+ * The components form a generated dependency graph where each component depends on up to
+ * {@value #MAX_DEPENDENCIES} components registered before it. With several threads, each thread boots its own
+ * manager.
+ *
+ * @author Hamza Ouni
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class StartupBenchmark {
+
+    static final int MAX_DEPENDENCIES = 3;
+
+    /**
+     * How far back the dependencies of a component are picked, to get a graph with some depth.
+     */
+    private static final int DEPENDENCY_WINDOW = 1000;
+
+    public interface Node {
+    }
+
+    public static class NodeImpl implements Node {
+        Node dependency0;
+
+        Node dependency1;
+
+        Node dependency2;
+    }
+
+    @Param({"100", "10000", "100000"})
+    public int size;
+
+    private List<DefaultComponentDescriptor<Node>> descriptors;
+
+    @Setup
+    public void setUp() {
+        // Always the same graph for a given size
+        Random random = new Random(42);
+
+        this.descriptors = new ArrayList<>(this.size);
+        for (int i = 0; i < this.size; ++i) {
+            DefaultComponentDescriptor<Node> descriptor = new DefaultComponentDescriptor<>();
+            descriptor.setRoleType(Node.class);
+            descriptor.setRoleHint("node" + i);
+            descriptor.setImplementation(NodeImpl.class);
+            descriptor.setInstantiationStrategy(ComponentInstantiationStrategy.SINGLETON);
+
+            int dependencyCount = i > 0 ? random.nextInt(MAX_DEPENDENCIES + 1) : 0;
+            for (int j = 0; j < dependencyCount; ++j) {
+                DefaultComponentDependency<Node> dependency = new DefaultComponentDependency<>();
+                dependency.setName("dependency" + j);
+                dependency.setRoleType(Node.class);
+                dependency.setRoleHint("node" + (i - 1 - random.nextInt(Math.min(i, DEPENDENCY_WINDOW))));
+                descriptor.addComponentDependency(dependency);
+            }
+
+            this.descriptors.add(descriptor);
+        }
+    }
+
+    @Benchmark
+    public EmbedComponentManager boot() throws Exception {
+        EmbedComponentManager manager = new EmbedComponentManager();
+        for (DefaultComponentDescriptor<Node> descriptor : this.descriptors) {
+            manager.registerComponent(descriptor);
+        }
+        manager.initializeSingletons();
+
+        return manager;
+    }
+}
@@ -0,0 +1,53 @@
+package component_module;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Component manager holding only its own components and looking up the other ones in a parent manager, for instance
+ * to override a few components for a tenant while sharing all the others.
+ * The components of the parent are created by the parent, with the dependencies of the parent, and the ones resolved
+ * through this manager are cached until the parent, or any of its ancestors, is modified.
+ *
+ * @author Hamza Ouni
+ */
+public class ChildComponentManager extends DefaultComponentManager implements AutoCloseable {
+
+    private long disposeTimeout = 10000;
+
+    /**
+     * @param parent the manager in which to look for the components which are not registered in this one
+     */
+    public ChildComponentManager(DefaultComponentManager parent) {
+        super(parent);
+
+        // The components of this manager get it instead of the parent
+        DefaultComponentDescriptor<ComponentManager> descriptor = new DefaultComponentDescriptor<>();
+        descriptor.setRoleType(ComponentManager.class);
+        descriptor.setImplementation(ChildComponentManager.class);
+        registerComponent(descriptor, this);
+    }
+
+    /**
+     * @param disposeTimeout the maximum time {@link #close()} waits for each component to dispose, in milliseconds
+     */
+    public void setDisposeTimeout(long disposeTimeout) {
+        this.disposeTimeout = disposeTimeout;
+    }
+
+    /**
+     * @return the maximum time {@link #close()} waits for each component to dispose, in milliseconds
+     */
+    public long getDisposeTimeout() {
+        return this.disposeTimeout;
+    }
+
+    /**
+     * Dispose the components registered in this manager, the ones of the parent are left untouched. See
+     * {@link #disposeComponents(long, TimeUnit)}.
+     */
+    @Override
+    public void close() {
+        detachFromParent();
+        disposeComponents(this.disposeTimeout, TimeUnit.MILLISECONDS);
+    }
+}
@@ -8,10 +8,26 @@ import java.lang.reflect.Type;
 public interface ComponentDependency<T> {
 
     /**
-     * @return the name of the injection point (name of the field or name of the method)
+     * @return the name of the injection point (name of the field, signature of the method as returned by
+     *         {@link ReflectionUtils#getMethodSignature(java.lang.reflect.Method)}, {@code <init>} for the
+     *         constructor)
      */
     String getName();
 
+    /**
+     * @return where the dependency is injected
+     */
+    default InjectionPointType getInjectionPointType() {
+        return InjectionPointType.FIELD;
+    }
+
+    /**
+     * @return the index of the parameter for constructor and method dependencies
+     */
+    default int getParameterIndex() {
+        return 0;
+    }
+
     /**
      * @return the class of the component role
      */
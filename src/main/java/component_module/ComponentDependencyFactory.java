@@ -2,14 +2,27 @@ package component_module;
 
 import javax.inject.Inject;
 import javax.inject.Named;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
 import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  *
- * Allows creating ComponentDependency instance from a Field.
+ * Allows creating ComponentDependency instance from a Field, a Constructor or a Method.
  * @author Hamza Ouni
  */
 public class ComponentDependencyFactory {
+
+    /**
+     * The name of the dependencies injected through the constructor.
+     */
+    public static final String CONSTRUCTOR_NAME = "<init>";
+
     public ComponentDependencyFactory() {
     }
 
@@ -35,6 +48,34 @@ public class ComponentDependencyFactory {
 
     }
 
+    /**
+     * @param executable the {@link Inject} constructor or method
+     * @return one dependency per parameter, in parameter order
+     */
+    public List<ComponentDependency<?>> createComponentDependencies(Executable executable) {
+        boolean constructor = executable instanceof Constructor;
+        Type[] parameterTypes = executable.getGenericParameterTypes();
+        Annotation[][] parameterAnnotations = executable.getParameterAnnotations();
 
+        List<ComponentDependency<?>> dependencies = new ArrayList<>(parameterTypes.length);
+        for (int i = 0; i < parameterTypes.length; ++i) {
+            DefaultComponentDependency<?> dependency = new DefaultComponentDependency<>();
+            dependency.setRoleType(parameterTypes[i]);
+            dependency.setName(
+                    constructor ? CONSTRUCTOR_NAME : ReflectionUtils.getMethodSignature((Method) executable));
+            dependency.setInjectionPointType(constructor ? InjectionPointType.CONSTRUCTOR : InjectionPointType.METHOD);
+            dependency.setParameterIndex(i);
+            // Look for a Named annotation
+            if (i < parameterAnnotations.length) {
+                for (Annotation annotation : parameterAnnotations[i]) {
+                    if (annotation instanceof Named) {
+                        dependency.setRoleHint(((Named) annotation).value());
+                    }
+                }
+            }
+            dependencies.add(dependency);
+        }
 
+        return dependencies;
+    }
 }
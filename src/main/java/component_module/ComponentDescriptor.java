@@ -2,6 +2,8 @@ package component_module;
 
 import java.lang.reflect.Type;
 import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
 
 /**
  * Represent a component.
@@ -34,5 +36,18 @@ public interface ComponentDescriptor<T> {
      */
     Collection<ComponentDependency<?>> getComponentDependencies();
 
-
+    /**
+     * @return the signatures of the {@code @Inject} methods called once the fields are injected, in call order,
+     *         including the methods without parameters; by default the methods of the
+     *         {@link InjectionPointType#METHOD} dependencies
+     */
+    default Collection<String> getInjectedMethods() {
+        Set<String> methods = new LinkedHashSet<>();
+        for (ComponentDependency<?> dependency : getComponentDependencies()) {
+            if (dependency.getInjectionPointType() == InjectionPointType.METHOD) {
+                methods.add(dependency.getName());
+            }
+        }
+        return methods;
+    }
 }
@@ -0,0 +1,388 @@
+package component_module;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary copy of the descriptors read from the component indexes, memory-mapped on the next startups instead of
+ * parsing the indexes and looking up the types which are not written in them.
+ * <p>
+ * The cache is keyed by a fingerprint of the component indexes found in the class path, made of their location and
+ * of the size and modification date of the directories or jars holding them, and rebuilt whenever it changes. It's made of big-endian values:
+ * <pre>
+ * int     magic
+ * int     format version
+ * long    fingerprint
+ * int     string count, then each string as an int byte length followed by its UTF-8 bytes
+ * int     descriptor count, then for each descriptor:
+ *   int   role type, hint, implementation and instantiation strategy, as indexes in the strings
+ *   int   dependency count, then for each dependency:
+ *     int name, hint, role type and injection point type, as indexes in the strings
+ *     int parameter index
+ *   int   injected method count, then each method signature as an index in the strings
+ * </pre>
+ * Types are written like in the index, and set to {@value ComponentIndexReader#UNRESOLVED_TYPE} when they cannot be.
+ *
+ * @author Hamza Ouni
+ */
+public class ComponentDescriptorCache {
+
+    /**
+     * The system property holding the path of the cache file, the cache is not used when it's not set.
+     */
+    public static final String CACHE_FILE_PROPERTY = "component_module.descriptorCache";
+
+    private static final int MAGIC = 0x43444331;
+
+    private static final int FORMAT_VERSION = 2;
+
+    // 64-bit FNV-1a
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private static final Logger logger = LoggerFactory.getLogger(ComponentDescriptorCache.class);
+
+    private final File file;
+
+    /**
+     * @param file the cache file
+     */
+    public ComponentDescriptorCache(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Read the descriptors from the cache, or from the component indexes when the cache is missing or outdated, in
+     * which case the cache is written.
+     *
+     * @param classLoader the class loader in which to look for component indexes
+     * @return the descriptors of all the indexed components, one per role
+     */
+    public List<ComponentDescriptor> getDescriptors(ClassLoader classLoader) {
+        long fingerprint = computeFingerprint(classLoader);
+
+        List<ComponentDescriptor> descriptors = read(fingerprint, classLoader);
+        if (descriptors == null) {
+            descriptors = new ComponentIndexReader().read(classLoader);
+            try {
+                write(fingerprint, descriptors);
+            } catch (IOException e) {
+                logger.warn("Failed to write the component descriptor cache [{}]: {}", this.file, e.toString());
+            }
+        }
+
+        return descriptors;
+    }
+
+    /**
+     * @param classLoader the class loader in which to look for component indexes
+     * @return a hash of the location of all the component indexes and of the size and modification date of the files
+     *         holding them, or of their content when they are not in files
+     */
+    public static long computeFingerprint(ClassLoader classLoader) {
+        long hash = FNV_OFFSET_BASIS;
+        try {
+            Enumeration<URL> indexes = classLoader.getResources(ComponentIndexReader.INDEX_RESOURCE);
+            while (indexes.hasMoreElements()) {
+                URL index = indexes.nextElement();
+                hash = hash(hash, index.toString().getBytes(StandardCharsets.UTF_8), -1);
+
+                File indexFile = getFile(index);
+                if (indexFile != null) {
+                    hash = hash(hash, indexFile.lastModified());
+                    hash = hash(hash, indexFile.length());
+                } else {
+                    try (InputStream stream = index.openStream()) {
+                        byte[] buffer = new byte[8192];
+                        int count;
+                        while ((count = stream.read(buffer)) != -1) {
+                            hash = hash(hash, buffer, count);
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read the component indexes", e);
+        }
+        return hash;
+    }
+
+    /**
+     * @return the file or jar holding the resource, or null if it's not in the file system
+     */
+    private static File getFile(URL resource) {
+        try {
+            if ("file".equals(resource.getProtocol())) {
+                return new File(resource.toURI());
+            } else if ("jar".equals(resource.getProtocol())) {
+                String path = resource.getPath();
+                int separator = path.indexOf("!/");
+                if (separator > 0 && path.startsWith("file:")) {
+                    return new File(new URL(path.substring(0, separator)).toURI());
+                }
+            }
+        } catch (Exception e) {
+            logger.debug("Cannot find the file of resource [{}]: {}", resource, e.toString());
+        }
+        return null;
+    }
+
+    private static long hash(long hash, long value) {
+        for (int i = 0; i < 8; ++i) {
+            hash = (hash ^ ((value >>> (i * 8)) & 0xff)) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    /**
+     * @param length the number of bytes to hash, or -1 for all of them followed by a separator
+     */
+    private static long hash(long hash, byte[] bytes, int length) {
+        int end = length < 0 ? bytes.length : length;
+        for (int i = 0; i < end; ++i) {
+            hash = (hash ^ (bytes[i] & 0xff)) * FNV_PRIME;
+        }
+        return length < 0 ? (hash ^ 0xff) * FNV_PRIME : hash;
+    }
+
+    /**
+     * @param fingerprint the fingerprint of the component indexes
+     * @param classLoader the class loader used to load the classes of the components
+     * @return the cached descriptors, or null if the cache is missing, outdated or corrupted
+     */
+    public List<ComponentDescriptor> read(long fingerprint, ClassLoader classLoader) {
+        if (!this.file.isFile()) {
+            return null;
+        }
+
+        try (FileChannel channel = FileChannel.open(this.file.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+                logger.info("Ignoring component descriptor cache [{}] with an unknown format", this.file);
+                return null;
+            }
+            if (buffer.getLong() != fingerprint) {
+                logger.info("Component descriptor cache [{}] is outdated, rebuilding it", this.file);
+                return null;
+            }
+
+            return decode(buffer, classLoader);
+        } catch (Exception | LinkageError e) {
+            logger.warn("Ignoring component descriptor cache [{}]: {}", this.file, e.toString());
+            return null;
+        }
+    }
+
+    private List<ComponentDescriptor> decode(ByteBuffer buffer, ClassLoader classLoader) throws Exception {
+        String[] strings = new String[buffer.getInt()];
+        for (int i = 0; i < strings.length; ++i) {
+            byte[] bytes = new byte[buffer.getInt()];
+            buffer.get(bytes);
+            strings[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        // Types and classes are often shared between descriptors, parse them once
+        Type[] types = new Type[strings.length];
+
+        int descriptorCount = buffer.getInt();
+        List<ComponentDescriptor> descriptors = new ArrayList<>(descriptorCount);
+        for (int i = 0; i < descriptorCount; ++i) {
+            DefaultComponentDescriptor descriptor = new DefaultComponentDescriptor();
+            descriptor.setRoleType(getType(buffer.getInt(), strings, types, classLoader));
+            descriptor.setRoleHint(strings[buffer.getInt()]);
+            Class<?> implementation = (Class<?>) getType(buffer.getInt(), strings, types, classLoader);
+            descriptor.setImplementation(implementation);
+            descriptor.setInstantiationStrategy(ComponentInstantiationStrategy.valueOf(strings[buffer.getInt()]));
+
+            int dependencyCount = buffer.getInt();
+            for (int j = 0; j < dependencyCount; ++j) {
+                DefaultComponentDependency<?> dependency = new DefaultComponentDependency<>();
+                dependency.setName(strings[buffer.getInt()]);
+                dependency.setRoleHint(strings[buffer.getInt()]);
+                int roleType = buffer.getInt();
+                dependency.setInjectionPointType(InjectionPointType.valueOf(strings[buffer.getInt()]));
+                dependency.setParameterIndex(buffer.getInt());
+                if (ComponentIndexReader.UNRESOLVED_TYPE.equals(strings[roleType])) {
+                    dependency.setRoleType(ComponentIndexReader.getUnresolvedType(implementation, dependency));
+                } else {
+                    dependency.setRoleType(getType(roleType, strings, types, classLoader));
+                }
+                descriptor.addComponentDependency(dependency);
+            }
+
+            int methodCount = buffer.getInt();
+            for (int j = 0; j < methodCount; ++j) {
+                descriptor.addInjectedMethod(strings[buffer.getInt()]);
+            }
+
+            descriptors.add(descriptor);
+        }
+
+        return descriptors;
+    }
+
+    private static Type getType(int index, String[] strings, Type[] types, ClassLoader classLoader)
+            throws ClassNotFoundException {
+        Type type = types[index];
+        if (type == null) {
+            type = ComponentIndexReader.parseType(strings[index], classLoader);
+            types[index] = type;
+        }
+        return type;
+    }
+
+    /**
+     * Write the cache, replacing the existing file atomically so that a concurrent startup never reads a partial
+     * cache.
+     *
+     * @param fingerprint the fingerprint of the component indexes
+     * @param descriptors the descriptors read from the component indexes
+     * @throws IOException when failing to write the file
+     */
+    public void write(long fingerprint, List<ComponentDescriptor> descriptors) throws IOException {
+        Map<String, Integer> stringIndexes = new HashMap<>();
+        List<String> strings = new ArrayList<>();
+        List<int[]> records = new ArrayList<>(descriptors.size());
+        for (ComponentDescriptor<?> descriptor : descriptors) {
+            Collection<ComponentDependency<?>> dependencies = descriptor.getComponentDependencies();
+            Collection<String> methods = descriptor.getInjectedMethods();
+            int[] record = new int[5 + dependencies.size() * 5 + 1 + methods.size()];
+            record[0] = getStringIndex(formatType(descriptor.getRoleType()), stringIndexes, strings);
+            record[1] = getStringIndex(descriptor.getRoleHint() != null ? descriptor.getRoleHint()
+                    : ComponentKey.DEFAULT_HINT, stringIndexes, strings);
+            record[2] = getStringIndex(descriptor.getImplementation().getName(), stringIndexes, strings);
+            record[3] = getStringIndex(descriptor.getInstantiationStrategy().name(), stringIndexes, strings);
+            record[4] = dependencies.size();
+            int position = 5;
+            for (ComponentDependency<?> dependency : dependencies) {
+                record[position++] = getStringIndex(dependency.getName(), stringIndexes, strings);
+                record[position++] = getStringIndex(dependency.getRoleHint() != null ? dependency.getRoleHint()
+                        : ComponentKey.DEFAULT_HINT, stringIndexes, strings);
+                record[position++] = getStringIndex(formatType(dependency.getRoleType()), stringIndexes, strings);
+                record[position++] =
+                        getStringIndex(dependency.getInjectionPointType().name(), stringIndexes, strings);
+                record[position++] = dependency.getParameterIndex();
+            }
+            record[position++] = methods.size();
+            for (String method : methods) {
+                record[position++] = getStringIndex(method, stringIndexes, strings);
+            }
+            records.add(record);
+        }
+
+        File directory = this.file.getAbsoluteFile().getParentFile();
+        if (directory != null) {
+            directory.mkdirs();
+        }
+        File temporaryFile = File.createTempFile(this.file.getName(), ".tmp", directory);
+        try {
+            try (DataOutputStream output =
+                         new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporaryFile.toPath())))) {
+                output.writeInt(MAGIC);
+                output.writeInt(FORMAT_VERSION);
+                output.writeLong(fingerprint);
+                output.writeInt(strings.size());
+                for (String string : strings) {
+                    byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+                    output.writeInt(bytes.length);
+                    output.write(bytes);
+                }
+                output.writeInt(records.size());
+                for (int[] record : records) {
+                    for (int value : record) {
+                        output.writeInt(value);
+                    }
+                }
+            }
+            Files.move(temporaryFile.toPath(), this.file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporaryFile.toPath());
+        }
+
+        logger.debug("Wrote {} component descriptors to cache [{}]", records.size(), this.file);
+    }
+
+    private static int getStringIndex(String string, Map<String, Integer> stringIndexes, List<String> strings) {
+        return stringIndexes.computeIfAbsent(string, key -> {
+            strings.add(key);
+            return strings.size() - 1;
+        });
+    }
+
+    /**
+     * @return the type written like in the component index, or {@value ComponentIndexReader#UNRESOLVED_TYPE}
+     */
+    private static String formatType(Type type) {
+        StringBuilder builder = new StringBuilder();
+        return appendType(type, builder) ? builder.toString() : ComponentIndexReader.UNRESOLVED_TYPE;
+    }
+
+    private static boolean appendType(Type type, StringBuilder builder) {
+        if (type instanceof Class) {
+            Class<?> clazz = (Class<?>) type;
+            if (clazz.isArray()) {
+                if (!appendType(clazz.getComponentType(), builder)) {
+                    return false;
+                }
+                builder.append("[]");
+                return true;
+            }
+            if (clazz.isPrimitive()) {
+                return false;
+            }
+            builder.append(clazz.getName());
+            return true;
+        } else if (type instanceof ParameterizedType) {
+            ParameterizedType parameterizedType = (ParameterizedType) type;
+            if (!appendType(parameterizedType.getRawType(), builder)) {
+                return false;
+            }
+            builder.append('<');
+            Type[] arguments = parameterizedType.getActualTypeArguments();
+            for (int i = 0; i < arguments.length; ++i) {
+                if (i > 0) {
+                    builder.append(',');
+                }
+                if (!appendType(arguments[i], builder)) {
+                    return false;
+                }
+            }
+            builder.append('>');
+            return true;
+        } else if (type instanceof GenericArrayType) {
+            if (!appendType(((GenericArrayType) type).getGenericComponentType(), builder)) {
+                return false;
+            }
+            builder.append("[]");
+            return true;
+        }
+
+        // Wildcards and type variables
+        return false;
+    }
+}
@@ -2,7 +2,10 @@ package component_module;
 
 import javax.inject.Named;
 import javax.inject.Singleton;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
 import java.lang.reflect.Field;
+import java.lang.reflect.Method;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.List;
@@ -58,6 +61,14 @@ public class ComponentDescriptorFactory {
         descriptor.setImplementation(componentClass);
         descriptor.setInstantiationStrategy(createComponentInstantiationStrategy(componentClass));
 
+        // Set the injected constructor parameters.
+        Constructor<?> constructor = ReflectionUtils.getInjectConstructor(componentClass);
+        if (constructor != null) {
+            for (ComponentDependency<?> dependency : createComponentDependencies(constructor)) {
+                descriptor.addComponentDependency(dependency);
+            }
+        }
+
         // Set the injected fields.
         for (Field field : ReflectionUtils.getAllFields(componentClass)) {
             ComponentDependency dependency = createComponentDependency(field);
@@ -66,6 +77,14 @@ public class ComponentDescriptorFactory {
             }
         }
 
+        // Set the injected methods and their parameters.
+        for (Method method : ReflectionUtils.getInjectMethods(componentClass)) {
+            descriptor.addInjectedMethod(ReflectionUtils.getMethodSignature(method));
+            for (ComponentDependency<?> dependency : createComponentDependencies(method)) {
+                descriptor.addComponentDependency(dependency);
+            }
+        }
+
         return descriptor;
     }
 
@@ -78,8 +97,11 @@ public class ComponentDescriptorFactory {
         ComponentInstantiationStrategy strategy;
 
         // Support both InstantiationStrategy and JSR 330's Singleton annotations.
+        InstantiationStrategy instantiationStrategy = componentClass.getAnnotation(InstantiationStrategy.class);
         Singleton singleton = componentClass.getAnnotation(Singleton.class);
-        if (singleton != null) {
+        if (instantiationStrategy != null) {
+            strategy = instantiationStrategy.value();
+        } else if (singleton != null) {
             strategy = ComponentInstantiationStrategy.SINGLETON;
         } else {
             // TODO: verify annotation in parents implementation
@@ -98,4 +120,13 @@ public class ComponentDescriptorFactory {
         ComponentDependency dependency = new ComponentDependencyFactory().createComponentDependency(field);
         return dependency;
     }
+
+    /**
+     * @param executable the constructor or method for which to extract Component Dependencies
+     * @return the Component Dependency instances created from the passed constructor or method parameters
+     */
+    private List<ComponentDependency<?>> createComponentDependencies(Executable executable) {
+
+        return new ComponentDependencyFactory().createComponentDependencies(executable);
+    }
 }
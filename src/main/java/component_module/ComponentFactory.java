@@ -0,0 +1,51 @@
+package component_module;
+
+/**
+ * Creates and injects instances of a component implementation without reflection.
+ * Implementations are generated at build time by {@link ComponentIndexProcessor} for each {@link Component}
+ * which can be instantiated and injected from its own package.
+ *
+ * @param <T> the component implementation type
+ * @author Hamza Ouni
+ */
+public interface ComponentFactory<T> {
+
+    /**
+     * The suffix of the generated factory classes.
+     */
+    String SUFFIX = "_ComponentFactory";
+
+    /**
+     * @param implementationName the binary name of the component implementation
+     * @return the name of the factory generated for the passed component implementation
+     */
+    static String getFactoryName(String implementationName) {
+        return implementationName.replace('$', '_') + SUFFIX;
+    }
+
+    /**
+     * @return the number of parameters of the constructor called by {@link #newInstance(Object[])}
+     */
+    int getConstructorParameterCount();
+
+    /**
+     * @param arguments the values of the parameters of the {@code @Inject} constructor, empty when the component is
+     *            created with its no argument constructor
+     * @return a new instance of the component implementation, with only its constructor parameters injected
+     * @throws Exception when the constructor fails
+     */
+    T newInstance(Object[] arguments) throws Exception;
+
+    /**
+     * @param name the name of the injected field
+     * @return the index to pass to {@link #inject(Object, int, Object)} or -1 if this factory cannot set the field
+     */
+    int getDependencyIndex(String name);
+
+    /**
+     * @param instance the component instance
+     * @param index the index of the field as returned by {@link #getDependencyIndex(String)}
+     * @param value the value to set in the field
+     */
+    void inject(T instance, int index, Object value);
+}
@@ -0,0 +1,196 @@
+package component_module;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Dependency graph of a set of components, built from {@link ComponentDescriptor#getComponentDependencies()}.
+ * Dependencies on components which are not part of the set are ignored. The keys of the graph are the keys of the
+ * nodes, which are the keys of the components unless they are merged.
+ *
+ * @author Hamza Ouni
+ */
+public class ComponentGraph {
+
+    private static class Node {
+        final ComponentDescriptor<?> descriptor;
+
+        /**
+         * The descriptors of the components merged in the node.
+         */
+        final List<ComponentDescriptor<?>> descriptors = new ArrayList<>();
+
+        final List<ComponentKey> dependencies = new ArrayList<>();
+
+        final List<ComponentKey> dependents = new ArrayList<>();
+
+        Node(ComponentDescriptor<?> descriptor) {
+            this.descriptor = descriptor;
+        }
+    }
+
+    private final Map<ComponentKey, Node> nodes = new LinkedHashMap<>();
+
+    private List<List<ComponentKey>> levels;
+
+    /**
+     * @param descriptors the descriptors of the components of the graph
+     */
+    public ComponentGraph(Collection<? extends ComponentDescriptor<?>> descriptors) {
+        this(descriptors, Collections.<ComponentKey, ComponentKey>emptyMap());
+    }
+
+    /**
+     * @param descriptors the descriptors of the components of the graph
+     * @param nodeKeys the key of the node in which each component is merged, for the components sharing their
+     *            instance with other components: a merged node holds the dependencies of all its components. The
+     *            other components have their own node.
+     */
+    public ComponentGraph(Collection<? extends ComponentDescriptor<?>> descriptors,
+            Map<ComponentKey, ComponentKey> nodeKeys) {
+        Set<ComponentKey> componentKeys = new HashSet<>();
+        for (ComponentDescriptor<?> descriptor : descriptors) {
+            ComponentKey key = new ComponentKey(descriptor.getRoleType(), descriptor.getRoleHint());
+            componentKeys.add(key);
+            this.nodes.computeIfAbsent(nodeKeys.getOrDefault(key, key), nodeKey -> new Node(descriptor)).descriptors
+                    .add(descriptor);
+        }
+
+        for (Map.Entry<ComponentKey, Node> entry : this.nodes.entrySet()) {
+            Node node = entry.getValue();
+            for (ComponentDescriptor<?> descriptor : node.descriptors) {
+                for (ComponentDependency<?> dependency : descriptor.getComponentDependencies()) {
+                    ComponentKey dependencyKey =
+                            new ComponentKey(dependency.getRoleType(), dependency.getRoleHint());
+                    if (componentKeys.contains(dependencyKey)) {
+                        dependencyKey = nodeKeys.getOrDefault(dependencyKey, dependencyKey);
+                        if (!node.dependencies.contains(dependencyKey)) {
+                            node.dependencies.add(dependencyKey);
+                            this.nodes.get(dependencyKey).dependents.add(entry.getKey());
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the components of the graph
+     */
+    public Collection<ComponentKey> getKeys() {
+        return Collections.unmodifiableSet(this.nodes.keySet());
+    }
+
+    /**
+     * @param key the component
+     * @return the descriptor of the component, the first merged one for a merged node
+     */
+    public ComponentDescriptor<?> getDescriptor(ComponentKey key) {
+        return this.nodes.get(key).descriptor;
+    }
+
+    /**
+     * @param key the component
+     * @return the components the passed one depends on
+     */
+    public List<ComponentKey> getDependencies(ComponentKey key) {
+        return Collections.unmodifiableList(this.nodes.get(key).dependencies);
+    }
+
+    /**
+     * @param key the component
+     * @return the components depending on the passed one
+     */
+    public List<ComponentKey> getDependents(ComponentKey key) {
+        return Collections.unmodifiableList(this.nodes.get(key).dependents);
+    }
+
+    /**
+     * Group the components in topological levels: the first level contains the components without dependencies and
+     * each following level the components whose dependencies are all in the previous levels. Components of a same
+     * level don't depend on each other.
+     *
+     * @return the levels, components which are part of a dependency cycle are not in any level
+     */
+    public List<List<ComponentKey>> getLevels() {
+        if (this.levels == null) {
+            List<List<ComponentKey>> result = new ArrayList<>();
+
+            Map<ComponentKey, Integer> remainingDependencies = new HashMap<>();
+            List<ComponentKey> level = new ArrayList<>();
+            for (Map.Entry<ComponentKey, Node> entry : this.nodes.entrySet()) {
+                int count = entry.getValue().dependencies.size();
+                remainingDependencies.put(entry.getKey(), count);
+                if (count == 0) {
+                    level.add(entry.getKey());
+                }
+            }
+
+            while (!level.isEmpty()) {
+                result.add(Collections.unmodifiableList(level));
+                List<ComponentKey> nextLevel = new ArrayList<>();
+                for (ComponentKey key : level) {
+                    for (ComponentKey dependent : this.nodes.get(key).dependents) {
+                        if (remainingDependencies.merge(dependent, -1, Integer::sum) == 0) {
+                            nextLevel.add(dependent);
+                        }
+                    }
+                }
+                level = nextLevel;
+            }
+
+            this.levels = Collections.unmodifiableList(result);
+        }
+
+        return this.levels;
+    }
+
+    /**
+     * @return the components which are part of, or depend on, a dependency cycle, each component before the
+     *         components it depends on unless they are part of the same cycle
+     */
+    public List<ComponentKey> getCyclicKeys() {
+        Set<ComponentKey> leveledKeys = new HashSet<>();
+        for (List<ComponentKey> level : getLevels()) {
+            leveledKeys.addAll(level);
+        }
+
+        // The reverse post-order of a depth-first traversal of the dependencies puts the dependents first, and
+        // sorts the cycles between them
+        LinkedList<ComponentKey> cyclicKeys = new LinkedList<>();
+        Set<ComponentKey> visited = new HashSet<>(leveledKeys);
+        Deque<ComponentKey> path = new ArrayDeque<>();
+        Deque<Iterator<ComponentKey>> pathDependencies = new ArrayDeque<>();
+        for (ComponentKey key : this.nodes.keySet()) {
+            if (visited.add(key)) {
+                path.push(key);
+                pathDependencies.push(this.nodes.get(key).dependencies.iterator());
+                while (!path.isEmpty()) {
+                    Iterator<ComponentKey> dependencies = pathDependencies.peek();
+                    if (dependencies.hasNext()) {
+                        ComponentKey dependency = dependencies.next();
+                        if (visited.add(dependency)) {
+                            path.push(dependency);
+                            pathDependencies.push(this.nodes.get(dependency).dependencies.iterator());
+                        }
+                    } else {
+                        cyclicKeys.addFirst(path.pop());
+                        pathDependencies.pop();
+                    }
+                }
+            }
+        }
+        return cyclicKeys;
+    }
+}
@@ -0,0 +1,21 @@
+package component_module;
+
+/**
+ * A resolved reference to a component, meant to be kept by code looking up the same component again and again.
+ * Getting the instance from a handle doesn't involve any map lookup. The handle follows the component when it's
+ * registered again or unregistered.
+ *
+ * @param <T> the component role type
+ * @author Hamza Ouni
+ */
+public interface ComponentHandle<T> {
+
+    /**
+     * Same as {@link ComponentManager#getInstance(java.lang.reflect.Type, String)} with the role and hint of the
+     * handle.
+     *
+     * @return the component instance or null if no component is registered for the handle role and hint
+     * @throws ComponentException when failing to create the component instance
+     */
+    T get() throws ComponentException;
+}
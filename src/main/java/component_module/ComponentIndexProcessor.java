@@ -0,0 +1,590 @@
+package component_module;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Annotation processor generating the component index read by {@link ComponentIndexReader}.
+ * It resolves at compile time what {@link ComponentManagerLoader} and {@link ComponentDescriptorFactory} otherwise
+ * compute with reflection: the roles, hint, instantiation strategy and injection points of each {@link Component}.
+ * It also generates a {@link ComponentFactory} for each component which can be created from its own package.
+ *
+ * @author Hamza Ouni
+ */
+@SupportedAnnotationTypes("component_module.Component")
+public class ComponentIndexProcessor extends AbstractProcessor {
+
+    /**
+     * Index records by component implementation name.
+     */
+    private Map<String, List<String>> components;
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (this.components == null) {
+            this.components = readExistingIndex();
+        }
+
+        for (Element element : roundEnv.getElementsAnnotatedWith(Component.class)) {
+            if (element.getKind() == ElementKind.CLASS && !element.getModifiers().contains(Modifier.ABSTRACT)) {
+                TypeElement componentElement = (TypeElement) element;
+                if (!checkInjectedParameters(componentElement)) {
+                    continue;
+                }
+                String implementation = getBinaryName(componentElement);
+                List<String> records = createRecords(componentElement);
+                if (records != null) {
+                    this.components.put(implementation, records);
+                } else {
+                    this.components.remove(implementation);
+                }
+                generateFactory(componentElement);
+            }
+        }
+
+        if (roundEnv.processingOver()) {
+            writeIndex();
+        }
+
+        return false;
+    }
+
+    /**
+     * Keep the components of a previous compilation so that incremental builds don't lose them.
+     */
+    private Map<String, List<String>> readExistingIndex() {
+        Map<String, List<String>> existing = new LinkedHashMap<>();
+        try {
+            FileObject index = this.processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "",
+                    ComponentIndexReader.INDEX_RESOURCE);
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(index.openInputStream(), StandardCharsets.UTF_8))) {
+                List<String> records = null;
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.startsWith(ComponentIndexReader.COMPONENT + '\t')) {
+                        String implementation = line.split("\t")[1];
+                        // Forget components which have been deleted since
+                        if (this.processingEnv.getElementUtils().getTypeElement(implementation.replace('$', '.'))
+                                != null) {
+                            records = new ArrayList<>();
+                            existing.put(implementation, records);
+                        } else {
+                            records = null;
+                        }
+                    }
+                    if (records != null) {
+                        records.add(line);
+                    }
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            // No previous index
+        }
+        return existing;
+    }
+
+    private void writeIndex() {
+        try {
+            FileObject index = this.processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "",
+                    ComponentIndexReader.INDEX_RESOURCE);
+            try (Writer writer = new OutputStreamWriter(index.openOutputStream(), StandardCharsets.UTF_8)) {
+                writer.write("# Generated by " + getClass().getName() + "\n");
+                for (List<String> records : this.components.values()) {
+                    for (String record : records) {
+                        writer.write(record);
+                        writer.write('\n');
+                    }
+                }
+            }
+        } catch (IOException e) {
+            this.processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Failed to write the component index: " + e.getMessage());
+        }
+    }
+
+    /**
+     * @param componentElement the component implementation
+     * @return the index records of the component or null if it doesn't implement any role
+     */
+    private List<String> createRecords(TypeElement componentElement) {
+        Set<String> roles = new LinkedHashSet<>();
+        findComponentRoleTypes(componentElement, roles);
+        if (roles.isEmpty()) {
+            return null;
+        }
+
+        List<String> records = new ArrayList<>();
+
+        Named named = componentElement.getAnnotation(Named.class);
+        String hint = named != null ? named.value() : "default";
+        InstantiationStrategy instantiationStrategy = componentElement.getAnnotation(InstantiationStrategy.class);
+        ComponentInstantiationStrategy strategy;
+        if (instantiationStrategy != null) {
+            strategy = instantiationStrategy.value();
+        } else if (componentElement.getAnnotation(Singleton.class) != null) {
+            strategy = ComponentInstantiationStrategy.SINGLETON;
+        } else {
+            strategy = ComponentInstantiationStrategy.PER_LOOKUP;
+        }
+        records.add(record(ComponentIndexReader.COMPONENT, getBinaryName(componentElement), hint, strategy.name()));
+
+        for (String role : roles) {
+            records.add(record(ComponentIndexReader.ROLE, role));
+        }
+
+        ExecutableElement constructor = getInjectConstructor(componentElement);
+        if (constructor != null) {
+            addParameterRecords(constructor, ComponentDependencyFactory.CONSTRUCTOR_NAME,
+                    InjectionPointType.CONSTRUCTOR, records);
+        }
+
+        for (VariableElement field : getAllFields(componentElement)) {
+            if (field.getAnnotation(Inject.class) != null) {
+                records.add(dependencyRecord(field.getSimpleName().toString(), field));
+            }
+        }
+
+        for (ExecutableElement method : getInjectMethods(componentElement)) {
+            String signature = getMethodSignature(method);
+            records.add(record(ComponentIndexReader.METHOD, signature));
+            addParameterRecords(method, signature, InjectionPointType.METHOD, records);
+        }
+
+        return records;
+    }
+
+    /**
+     * Report the parameters of the {@code @Inject} constructor and methods which can never be injected: no component
+     * has a primitive or a type variable as role, and a missing primitive argument makes the call fail.
+     *
+     * @return true if all the parameters can be injected
+     */
+    private boolean checkInjectedParameters(TypeElement componentElement) {
+        List<ExecutableElement> executables = new ArrayList<>(getInjectMethods(componentElement));
+        ExecutableElement constructor = getInjectConstructor(componentElement);
+        if (constructor != null) {
+            executables.add(constructor);
+        }
+
+        boolean valid = true;
+        for (ExecutableElement executable : executables) {
+            for (VariableElement parameter : executable.getParameters()) {
+                TypeKind kind = parameter.asType().getKind();
+                if (kind.isPrimitive() || kind == TypeKind.TYPEVAR) {
+                    this.processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                            String.format("Parameter [%s] of [%s] cannot be injected: [%s] cannot be a component role",
+                                    parameter.getSimpleName(), getBinaryName(componentElement), parameter.asType()),
+                            parameter);
+                    valid = false;
+                }
+            }
+        }
+        return valid;
+    }
+
+    private void addParameterRecords(ExecutableElement executable, String name, InjectionPointType injectionPointType,
+            List<String> records) {
+        List<? extends VariableElement> parameters = executable.getParameters();
+        for (int i = 0; i < parameters.size(); ++i) {
+            records.add(record(dependencyRecord(name, parameters.get(i)), injectionPointType.name(),
+                    String.valueOf(i)));
+        }
+    }
+
+    private String dependencyRecord(String name, VariableElement element) {
+        Named named = element.getAnnotation(Named.class);
+        String type = encodeType(element.asType());
+        return record(ComponentIndexReader.DEPENDENCY, name, named != null ? named.value() : "default",
+                type != null ? type : ComponentIndexReader.UNRESOLVED_TYPE);
+    }
+
+    /**
+     * Same as {@link ComponentManagerLoader#findComponentRoleTypes(Class)}: only the non generic interfaces are
+     * looked at.
+     */
+    private void findComponentRoleTypes(TypeElement typeElement, Set<String> roles) {
+        for (TypeMirror interfaceType : typeElement.getInterfaces()) {
+            DeclaredType declaredType = (DeclaredType) interfaceType;
+            if (!declaredType.getTypeArguments().isEmpty()) {
+                continue;
+            }
+
+            TypeElement interfaceElement = (TypeElement) declaredType.asElement();
+
+            // Handle superclass of interfaces
+            findComponentRoleTypes(interfaceElement, roles);
+
+            // Handle interfaces directly declared in the passed component class
+            if (interfaceElement.getAnnotation(Role.class) != null) {
+                roles.add(getBinaryName(interfaceElement));
+            }
+        }
+
+        TypeMirror superType = typeElement.getSuperclass();
+        if (superType.getKind() == TypeKind.DECLARED && ((DeclaredType) superType).getTypeArguments().isEmpty()) {
+            TypeElement superElement = (TypeElement) ((DeclaredType) superType).asElement();
+            if (!superElement.getQualifiedName().contentEquals(Object.class.getName())) {
+                findComponentRoleTypes(superElement, roles);
+            }
+        }
+    }
+
+    /**
+     * Same as {@link ReflectionUtils#getAllFields(Class)}.
+     */
+    private List<VariableElement> getAllFields(TypeElement typeElement) {
+        List<VariableElement> fields = new ArrayList<>();
+        Set<String> names = new HashSet<>();
+        TypeElement targetElement = typeElement;
+        while (targetElement != null) {
+            for (VariableElement field : ElementFilter.fieldsIn(targetElement.getEnclosedElements())) {
+                if (names.add(field.getSimpleName().toString())) {
+                    fields.add(field);
+                }
+            }
+
+            TypeMirror superType = targetElement.getSuperclass();
+            targetElement = superType.getKind() == TypeKind.DECLARED
+                    ? (TypeElement) ((DeclaredType) superType).asElement() : null;
+        }
+        return fields;
+    }
+
+    /**
+     * Same as {@link ReflectionUtils#getInjectConstructor(Class)}.
+     */
+    private ExecutableElement getInjectConstructor(TypeElement typeElement) {
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(typeElement.getEnclosedElements())) {
+            if (constructor.getAnnotation(Inject.class) != null) {
+                return constructor;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Same as {@link ReflectionUtils#getInjectMethods(Class)}.
+     */
+    private List<ExecutableElement> getInjectMethods(TypeElement typeElement) {
+        Set<String> signatures = new HashSet<>();
+        Deque<List<ExecutableElement>> classInjectMethods = new ArrayDeque<>();
+        TypeElement targetElement = typeElement;
+        while (targetElement != null) {
+            List<ExecutableElement> injectMethods = new ArrayList<>();
+            for (ExecutableElement method : ElementFilter.methodsIn(targetElement.getEnclosedElements())) {
+                if (!method.getModifiers().contains(Modifier.STATIC) && signatures.add(getMethodSignature(method))
+                        && method.getAnnotation(Inject.class) != null) {
+                    injectMethods.add(method);
+                }
+            }
+            classInjectMethods.push(injectMethods);
+
+            TypeMirror superType = targetElement.getSuperclass();
+            targetElement = superType.getKind() == TypeKind.DECLARED
+                    ? (TypeElement) ((DeclaredType) superType).asElement() : null;
+        }
+
+        List<ExecutableElement> injectMethods = new ArrayList<>();
+        for (List<ExecutableElement> methods : classInjectMethods) {
+            injectMethods.addAll(methods);
+        }
+        return injectMethods;
+    }
+
+    /**
+     * Same as {@link ReflectionUtils#getMethodSignature(java.lang.reflect.Method)}.
+     */
+    private String getMethodSignature(ExecutableElement method) {
+        StringBuilder signature = new StringBuilder();
+        if (method.getModifiers().contains(Modifier.PRIVATE)) {
+            signature.append(getBinaryName((TypeElement) method.getEnclosingElement())).append('#');
+        }
+        signature.append(method.getSimpleName()).append('(');
+        List<? extends VariableElement> parameters = method.getParameters();
+        for (int i = 0; i < parameters.size(); ++i) {
+            if (i > 0) {
+                signature.append(',');
+            }
+            signature.append(getErasedTypeName(parameters.get(i).asType()));
+        }
+        return signature.append(')').toString();
+    }
+
+    /**
+     * @return the erasure of the passed type named like {@link Class#getTypeName()} does
+     */
+    private String getErasedTypeName(TypeMirror type) {
+        TypeMirror erasedType = this.processingEnv.getTypeUtils().erasure(type);
+        if (erasedType.getKind() == TypeKind.ARRAY) {
+            return getErasedTypeName(((ArrayType) erasedType).getComponentType()) + "[]";
+        } else if (erasedType.getKind() == TypeKind.DECLARED) {
+            return getBinaryName((TypeElement) ((DeclaredType) erasedType).asElement());
+        }
+        // Primitives
+        return erasedType.toString();
+    }
+
+    /**
+     * @param type the type to serialize
+     * @return the type in the index format or null if it can only be resolved from the field at runtime
+     */
+    private String encodeType(TypeMirror type) {
+        if (type.getKind() == TypeKind.ARRAY) {
+            String componentType = encodeType(((ArrayType) type).getComponentType());
+            return componentType != null ? componentType + "[]" : null;
+        } else if (type.getKind() == TypeKind.DECLARED) {
+            DeclaredType declaredType = (DeclaredType) type;
+            TypeMirror enclosingType = declaredType.getEnclosingType();
+            if (enclosingType.getKind() == TypeKind.DECLARED
+                    && !((DeclaredType) enclosingType).getTypeArguments().isEmpty()) {
+                // The owner type of generic inner classes is not supported by the index
+                return null;
+            }
+
+            StringBuilder builder = new StringBuilder(getBinaryName((TypeElement) declaredType.asElement()));
+            List<? extends TypeMirror> arguments = declaredType.getTypeArguments();
+            if (!arguments.isEmpty()) {
+                builder.append('<');
+                for (int i = 0; i < arguments.size(); ++i) {
+                    String argument = encodeType(arguments.get(i));
+                    if (argument == null) {
+                        return null;
+                    }
+                    if (i > 0) {
+                        builder.append(',');
+                    }
+                    builder.append(argument);
+                }
+                builder.append('>');
+            }
+            return builder.toString();
+        }
+
+        // Primitives, type variables, wildcards...
+        return null;
+    }
+
+    /**
+     * Generate the {@link ComponentFactory} of the passed component. Nothing is generated when the component or its
+     * constructor cannot be accessed from its package, the fields which cannot be set from the package are left to
+     * the MethodHandle based injection.
+     */
+    private void generateFactory(TypeElement componentElement) {
+        String packageName = getPackageName(componentElement);
+        ExecutableElement constructor =
+                isInstantiableFromPackage(componentElement) ? getFactoryConstructor(componentElement, packageName) : null;
+        if (constructor == null) {
+            return;
+        }
+
+        String factoryName = ComponentFactory.getFactoryName(getBinaryName(componentElement));
+        String factorySimpleName = factoryName.substring(factoryName.lastIndexOf('.') + 1);
+        String componentName = componentElement.getQualifiedName().toString();
+
+        List<VariableElement> fields = new ArrayList<>();
+        for (VariableElement field : getAllFields(componentElement)) {
+            if (field.getAnnotation(Inject.class) != null && isInjectableFromPackage(field, packageName)) {
+                fields.add(field);
+            }
+        }
+
+        StringBuilder source = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+        source.append("/**\n * Generated by ").append(getClass().getName()).append(".\n */\n");
+        source.append("public final class ").append(factorySimpleName).append(" implements ")
+                .append(ComponentFactory.class.getName()).append('<').append(componentName).append("> {\n\n");
+
+        List<? extends VariableElement> parameters = constructor.getParameters();
+        source.append("    @Override\n");
+        source.append("    public int getConstructorParameterCount() {\n");
+        source.append("        return ").append(parameters.size()).append(";\n");
+        source.append("    }\n\n");
+
+        source.append("    @Override\n");
+        source.append("    @SuppressWarnings({\"unchecked\", \"rawtypes\"})\n");
+        source.append("    public ").append(componentName).append(" newInstance(Object[] arguments) throws Exception {\n");
+        source.append("        return new ").append(componentName).append('(');
+        for (int i = 0; i < parameters.size(); ++i) {
+            if (i > 0) {
+                source.append(", ");
+            }
+            source.append('(').append(this.processingEnv.getTypeUtils().erasure(parameters.get(i).asType()))
+                    .append(") arguments[").append(i).append(']');
+        }
+        source.append(");\n");
+        source.append("    }\n\n");
+
+        source.append("    @Override\n");
+        source.append("    public int getDependencyIndex(String name) {\n");
+        source.append("        switch (name) {\n");
+        for (int i = 0; i < fields.size(); ++i) {
+            source.append("            case \"").append(fields.get(i).getSimpleName()).append("\":\n");
+            source.append("                return ").append(i).append(";\n");
+        }
+        source.append("            default:\n");
+        source.append("                return -1;\n");
+        source.append("        }\n");
+        source.append("    }\n\n");
+
+        source.append("    @Override\n");
+        source.append("    @SuppressWarnings({\"unchecked\", \"rawtypes\"})\n");
+        source.append("    public void inject(").append(componentName).append(" instance, int index, Object value) {\n");
+        source.append("        switch (index) {\n");
+        for (int i = 0; i < fields.size(); ++i) {
+            VariableElement field = fields.get(i);
+            source.append("            case ").append(i).append(":\n");
+            source.append("                instance.").append(field.getSimpleName()).append(" = (")
+                    .append(this.processingEnv.getTypeUtils().erasure(field.asType())).append(") value;\n");
+            source.append("                break;\n");
+        }
+        source.append("            default:\n");
+        source.append("                throw new IllegalArgumentException(\"Unknown dependency index \" + index);\n");
+        source.append("        }\n");
+        source.append("    }\n");
+        source.append("}\n");
+
+        try {
+            JavaFileObject file = this.processingEnv.getFiler().createSourceFile(factoryName, componentElement);
+            try (Writer writer = file.openWriter()) {
+                writer.write(source.toString());
+            }
+        } catch (IOException e) {
+            this.processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Failed to generate the component factory: " + e.getMessage(), componentElement);
+        }
+    }
+
+    private boolean isAccessibleFromPackage(TypeElement typeElement, String packageName) {
+        boolean samePackage = getPackageName(typeElement).equals(packageName);
+        Element element = typeElement;
+        while (element.getKind().isClass() || element.getKind().isInterface()) {
+            Set<Modifier> modifiers = element.getModifiers();
+            if (modifiers.contains(Modifier.PRIVATE) || !samePackage && !modifiers.contains(Modifier.PUBLIC)) {
+                return false;
+            }
+            element = element.getEnclosingElement();
+        }
+        return true;
+    }
+
+    private boolean isInstantiableFromPackage(TypeElement typeElement) {
+        if (!isAccessibleFromPackage(typeElement, getPackageName(typeElement))) {
+            return false;
+        }
+
+        // Inner classes need an enclosing instance
+        Element enclosingElement = typeElement.getEnclosingElement();
+        return !enclosingElement.getKind().isClass() || typeElement.getModifiers().contains(Modifier.STATIC);
+    }
+
+    /**
+     * @return the {@code @Inject} constructor, or else the no argument constructor, if it can be called from the
+     *         package
+     */
+    private ExecutableElement getFactoryConstructor(TypeElement typeElement, String packageName) {
+        ExecutableElement constructor = getInjectConstructor(typeElement);
+        if (constructor == null) {
+            for (ExecutableElement candidate : ElementFilter.constructorsIn(typeElement.getEnclosedElements())) {
+                if (candidate.getParameters().isEmpty()) {
+                    constructor = candidate;
+                }
+            }
+        }
+
+        if (constructor == null || constructor.getModifiers().contains(Modifier.PRIVATE)) {
+            return null;
+        }
+        for (VariableElement parameter : constructor.getParameters()) {
+            if (!isTypeAccessibleFromPackage(parameter.asType(), packageName)) {
+                return null;
+            }
+        }
+        return constructor;
+    }
+
+    private boolean isInjectableFromPackage(VariableElement field, String packageName) {
+        Set<Modifier> modifiers = field.getModifiers();
+        if (modifiers.contains(Modifier.PRIVATE) || modifiers.contains(Modifier.FINAL)
+                || modifiers.contains(Modifier.STATIC)) {
+            return false;
+        }
+
+        TypeElement declaringElement = (TypeElement) field.getEnclosingElement();
+        if (!isAccessibleFromPackage(declaringElement, packageName)
+                || !getPackageName(declaringElement).equals(packageName) && !modifiers.contains(Modifier.PUBLIC)) {
+            return false;
+        }
+
+        // The cast to the field type must compile too
+        return isTypeAccessibleFromPackage(field.asType(), packageName);
+    }
+
+    /**
+     * @return true if a cast to the erasure of the passed type compiles in the package
+     */
+    private boolean isTypeAccessibleFromPackage(TypeMirror type, String packageName) {
+        TypeMirror erasedType = this.processingEnv.getTypeUtils().erasure(type);
+        while (erasedType.getKind() == TypeKind.ARRAY) {
+            erasedType = ((ArrayType) erasedType).getComponentType();
+        }
+        if (erasedType.getKind() == TypeKind.DECLARED) {
+            return isAccessibleFromPackage((TypeElement) ((DeclaredType) erasedType).asElement(), packageName);
+        }
+        return erasedType.getKind().isPrimitive();
+    }
+
+    private String getPackageName(TypeElement typeElement) {
+        return this.processingEnv.getElementUtils().getPackageOf(typeElement).getQualifiedName().toString();
+    }
+
+    private String getBinaryName(TypeElement typeElement) {
+        return this.processingEnv.getElementUtils().getBinaryName(typeElement).toString();
+    }
+
+    private String record(String... values) {
+        return String.join("\t", values);
+    }
+}
@@ -0,0 +1,281 @@
+package component_module;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+
+/**
+ * Read the component index generated at build time by {@link ComponentIndexProcessor} and create the matching
+ * component descriptors without scanning the component annotations.
+ * <p>
+ * The index is a UTF-8 text resource made of tab separated records:
+ * <pre>
+ * component  &lt;implementation binary name&gt;  &lt;hint&gt;  &lt;instantiation strategy&gt;
+ * role       &lt;role type&gt;
+ * dependency &lt;field name&gt;  &lt;hint&gt;  &lt;role type&gt;
+ * dependency &lt;method signature&gt;  &lt;hint&gt;  &lt;role type&gt;  &lt;injection point type&gt;  &lt;parameter index&gt;
+ * method     &lt;method signature&gt;
+ * </pre>
+ * The role and dependency records apply to the last component record. Types use binary class names and generic
+ * arguments are written between angle brackets. A dependency type which cannot be written that way is set to
+ * {@value #UNRESOLVED_TYPE} and taken from the field or parameter. Constructor parameters use the
+ * {@value ComponentDependencyFactory#CONSTRUCTOR_NAME} name. The method records list the {@code @Inject} methods in
+ * call order, including the ones without parameters, with the signature returned by
+ * {@link ReflectionUtils#getMethodSignature(Method)}.
+ *
+ * @author Hamza Ouni
+ */
+public class ComponentIndexReader {
+
+    /**
+     * The location of the index in the class path.
+     */
+    public static final String INDEX_RESOURCE = "META-INF/components/index";
+
+    public static final String COMPONENT = "component";
+
+    public static final String ROLE = "role";
+
+    public static final String DEPENDENCY = "dependency";
+
+    public static final String METHOD = "method";
+
+    public static final String UNRESOLVED_TYPE = "?";
+
+    private static final Logger logger = LoggerFactory.getLogger(ComponentIndexReader.class);
+
+    /**
+     * @param classLoader the class loader in which to look for indexes
+     * @return the descriptors of all the indexed components, one per role
+     */
+    public List<ComponentDescriptor> read(ClassLoader classLoader) {
+        List<ComponentDescriptor> descriptors = new ArrayList<>();
+
+        Enumeration<URL> indexes;
+        try {
+            indexes = classLoader.getResources(INDEX_RESOURCE);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to look for component indexes", e);
+        }
+
+        while (indexes.hasMoreElements()) {
+            URL index = indexes.nextElement();
+            try {
+                read(index, classLoader, descriptors);
+            } catch (IOException e) {
+                throw new RuntimeException(String.format("Failed to read component index [%s]", index), e);
+            }
+        }
+
+        return descriptors;
+    }
+
+    private void read(URL index, ClassLoader classLoader, List<ComponentDescriptor> descriptors) throws IOException {
+        try (BufferedReader reader =
+                     new BufferedReader(new InputStreamReader(index.openStream(), StandardCharsets.UTF_8))) {
+            IndexedComponent component = null;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty() || line.charAt(0) == '#') {
+                    continue;
+                }
+
+                String[] record = line.split("\t", -1);
+                if (COMPONENT.equals(record[0])) {
+                    addDescriptors(component, descriptors);
+                    component = createComponent(record, classLoader);
+                } else if (component != null) {
+                    try {
+                        if (ROLE.equals(record[0])) {
+                            component.roles.add(parseType(record[1], classLoader));
+                        } else if (DEPENDENCY.equals(record[0])) {
+                            component.dependencies.add(createDependency(component.implementation, record,
+                                    classLoader));
+                        } else if (METHOD.equals(record[0])) {
+                            component.injectedMethods.add(record[1]);
+                        }
+                    } catch (Exception e) {
+                        logger.warn("Skipping component [{}] from index [{}]: {}", component.implementation.getName(),
+                                index, e.toString());
+                        component = null;
+                    }
+                }
+            }
+            addDescriptors(component, descriptors);
+        }
+    }
+
+    private IndexedComponent createComponent(String[] record, ClassLoader classLoader) {
+        IndexedComponent component;
+        try {
+            component = new IndexedComponent();
+            component.implementation = Class.forName(record[1], false, classLoader);
+            component.hint = record[2];
+            component.instantiationStrategy = ComponentInstantiationStrategy.valueOf(record[3]);
+        } catch (Exception | LinkageError e) {
+            // The index may list components from an outdated build
+            logger.warn("Skipping indexed component [{}]: {}", record[1], e.toString());
+            component = null;
+        }
+        return component;
+    }
+
+    private ComponentDependency<?> createDependency(Class<?> implementation, String[] record, ClassLoader classLoader)
+            throws Exception {
+        DefaultComponentDependency<?> dependency = new DefaultComponentDependency<>();
+        dependency.setName(record[1]);
+        dependency.setRoleHint(record[2]);
+        if (record.length > 5) {
+            dependency.setInjectionPointType(InjectionPointType.valueOf(record[4]));
+            dependency.setParameterIndex(Integer.parseInt(record[5]));
+        }
+        if (UNRESOLVED_TYPE.equals(record[3])) {
+            dependency.setRoleType(getUnresolvedType(implementation, dependency));
+        } else {
+            dependency.setRoleType(parseType(record[3], classLoader));
+        }
+        return dependency;
+    }
+
+    /**
+     * @param implementation the component implementation
+     * @param dependency the dependency whose type could not be written in the index
+     * @return the type of the field or parameter injected with the dependency
+     * @throws Exception when the field or parameter cannot be found
+     */
+    static Type getUnresolvedType(Class<?> implementation, ComponentDependency<?> dependency) throws Exception {
+        int index = dependency.getParameterIndex();
+        if (dependency.getInjectionPointType() == InjectionPointType.CONSTRUCTOR) {
+            Constructor<?> constructor = ReflectionUtils.getInjectConstructor(implementation);
+            if (constructor == null) {
+                throw new NoSuchMethodException("No @Inject constructor in class [" + implementation.getName() + "]");
+            }
+            return constructor.getGenericParameterTypes()[index];
+        } else if (dependency.getInjectionPointType() == InjectionPointType.METHOD) {
+            return ReflectionUtils.getInjectMethod(implementation, dependency.getName())
+                    .getGenericParameterTypes()[index];
+        }
+
+        return ReflectionUtils.getField(implementation, dependency.getName()).getGenericType();
+    }
+
+    private void addDescriptors(IndexedComponent component, List<ComponentDescriptor> descriptors) {
+        if (component != null) {
+            for (Type role : component.roles) {
+                DefaultComponentDescriptor descriptor = new DefaultComponentDescriptor();
+                descriptor.setRoleType(role);
+                descriptor.setRoleHint(component.hint);
+                descriptor.setImplementation(component.implementation);
+                descriptor.setInstantiationStrategy(component.instantiationStrategy);
+                for (ComponentDependency<?> dependency : component.dependencies) {
+                    descriptor.addComponentDependency(dependency);
+                }
+                for (String method : component.injectedMethods) {
+                    descriptor.addInjectedMethod(method);
+                }
+                descriptors.add(descriptor);
+            }
+        }
+    }
+
+    /**
+     * @param value the serialized type
+     * @param classLoader the class loader used to load the classes of the type
+     * @return the type
+     * @throws ClassNotFoundException when one of the classes of the type cannot be found
+     */
+    public static Type parseType(String value, ClassLoader classLoader) throws ClassNotFoundException {
+        int[] position = new int[1];
+        Type type = parseType(value, position, classLoader);
+        if (position[0] != value.length()) {
+            throw new IllegalArgumentException(String.format("Invalid type [%s]", value));
+        }
+        return type;
+    }
+
+    private static Type parseType(String value, int[] position, ClassLoader classLoader)
+            throws ClassNotFoundException {
+        int start = position[0];
+        int end = start;
+        while (end < value.length() && "<>,[".indexOf(value.charAt(end)) == -1) {
+            ++end;
+        }
+        Class<?> rawType = Class.forName(value.substring(start, end), false, classLoader);
+        position[0] = end;
+
+        Type type = rawType;
+        if (end < value.length() && value.charAt(end) == '<') {
+            List<Type> arguments = new ArrayList<>();
+            do {
+                ++position[0];
+                arguments.add(parseType(value, position, classLoader));
+            } while (value.charAt(position[0]) == ',');
+            // Skip the closing bracket
+            ++position[0];
+            type = new DefaultParameterizedType(null, rawType, arguments.toArray(new Type[arguments.size()]));
+        }
+
+        while (value.startsWith("[]", position[0])) {
+            position[0] += 2;
+            type = toArrayType(type);
+        }
+
+        return type;
+    }
+
+    private static Type toArrayType(final Type componentType) {
+        if (componentType instanceof Class) {
+            return Array.newInstance((Class<?>) componentType, 0).getClass();
+        }
+
+        return new GenericArrayType() {
+            @Override
+            public Type getGenericComponentType() {
+                return componentType;
+            }
+
+            @Override
+            public boolean equals(Object object) {
+                return object instanceof GenericArrayType
+                        && componentType.equals(((GenericArrayType) object).getGenericComponentType());
+            }
+
+            @Override
+            public int hashCode() {
+                return componentType.hashCode();
+            }
+
+            @Override
+            public String toString() {
+                return componentType.getTypeName() + "[]";
+            }
+        };
+    }
+
+    private static class IndexedComponent {
+        Class<?> implementation;
+
+        String hint;
+
+        ComponentInstantiationStrategy instantiationStrategy;
+
+        List<Type> roles = new ArrayList<>();
+
+        List<ComponentDependency<?>> dependencies = new ArrayList<>();
+
+        List<String> injectedMethods = new ArrayList<>();
+    }
+}
@@ -13,5 +13,23 @@ public enum ComponentInstantiationStrategy {
     /**
      * A new component implementation instance is created at a each lookup.
      */
-    PER_LOOKUP
+    PER_LOOKUP,
+
+    /**
+     * Instances are borrowed from a bounded pool of injected instances and should be given back with
+     * {@link ComponentManager#returnInstance(java.lang.reflect.Type, String, Object)}.
+     */
+    POOLED,
+
+    /**
+     * Each thread gets its own component implementation instance, created on its first lookup. These instances are
+     * not disposed by the Component Manager.
+     */
+    THREAD,
+
+    /**
+     * One component implementation instance is created per {@link ComponentScope} and disposed when the scope is
+     * closed. Looking the component up outside of a scope fails.
+     */
+    SCOPED
 }
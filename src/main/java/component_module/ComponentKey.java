@@ -0,0 +1,89 @@
+package component_module;
+
+import java.lang.reflect.Type;
+
+/**
+ * Immutable identifier of a registered component: its role type and hint.
+ * The role type is interned with {@link TypeInterner} so that role types are compared by identity, and the hash is
+ * computed once since role types can be generic types whose hash code is costly.
+ *
+ * @author Hamza Ouni
+ */
+public final class ComponentKey {
+
+    /**
+     * The hint used when none is provided.
+     */
+    public static final String DEFAULT_HINT = "default";
+
+    private final Type roleType;
+
+    private final String roleHint;
+
+    private final int hash;
+
+    /**
+     * @param roleType the role type of the component
+     * @param roleHint the hint of the component, {@link #DEFAULT_HINT} when null
+     */
+    public ComponentKey(Type roleType, String roleHint) {
+        this.roleType = TypeInterner.intern(roleType);
+        this.roleHint = roleHint != null ? roleHint : DEFAULT_HINT;
+        this.hash = 31 * this.roleType.hashCode() + this.roleHint.hashCode();
+    }
+
+    /**
+     * @param roleHint the hint to check
+     * @return true if the passed hint designates the default component of a role
+     */
+    public static boolean isDefaultHint(String roleHint) {
+        return roleHint == null || roleHint == DEFAULT_HINT || DEFAULT_HINT.equals(roleHint);
+    }
+
+    /**
+     * @return a key with the same role and hint whose hint is interned
+     */
+    public ComponentKey intern() {
+        String internedHint = this.roleHint.intern();
+        return internedHint == this.roleHint ? this : new ComponentKey(this.roleType, internedHint);
+    }
+
+    /**
+     * @return the role type of the component
+     */
+    public Type getRoleType() {
+        return this.roleType;
+    }
+
+    /**
+     * @return the hint of the component
+     */
+    public String getRoleHint() {
+        return this.roleHint;
+    }
+
+    @Override
+    public boolean equals(Object object) {
+        if (this == object) {
+            return true;
+        }
+        if (!(object instanceof ComponentKey)) {
+            return false;
+        }
+
+        ComponentKey key = (ComponentKey) object;
+        return this.hash == key.hash
+                && (this.roleHint == key.roleHint || this.roleHint.equals(key.roleHint))
+                && this.roleType == key.roleType;
+    }
+
+    @Override
+    public int hashCode() {
+        return this.hash;
+    }
+
+    @Override
+    public String toString() {
+        return this.roleType.getTypeName() + "[" + this.roleHint + "]";
+    }
+}
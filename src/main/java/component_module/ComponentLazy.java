@@ -0,0 +1,101 @@
+package component_module;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * Lazy injected for {@code Lazy<T>} dependencies, the component is looked up on the first call to {@link #get()}.
+ * No lock is held during the lookup, which may create a whole graph of components: the first thread publishes a
+ * pending lookup with a compare-and-set and the other threads wait for its result, like for the singletons.
+ *
+ * @param <T> the component role type
+ * @author Hamza Ouni
+ */
+public class ComponentLazy<T> implements Lazy<T> {
+
+    /**
+     * A lookup in progress.
+     */
+    private static final class PendingLookup<T> {
+        final Thread thread = Thread.currentThread();
+
+        final CompletableFuture<T> future = new CompletableFuture<>();
+    }
+
+    private static final AtomicReferenceFieldUpdater<ComponentLazy, Object> STATE_UPDATER =
+            AtomicReferenceFieldUpdater.newUpdater(ComponentLazy.class, Object.class, "state");
+
+    private final ComponentHandle<T> handle;
+
+    /**
+     * Null before the first lookup, then a {@link PendingLookup} until the instance is known.
+     */
+    private volatile Object state;
+
+    /**
+     * @param handle the handle of the component
+     */
+    public ComponentLazy(ComponentHandle<T> handle) {
+        this.handle = handle;
+    }
+
+    @Override
+    public T get() {
+        Object currentState = this.state;
+        if (currentState != null && !(currentState instanceof PendingLookup)) {
+            return (T) currentState;
+        }
+
+        while (true) {
+            if (currentState instanceof PendingLookup) {
+                return waitForLookup((PendingLookup<T>) currentState);
+            }
+            if (currentState != null) {
+                return (T) currentState;
+            }
+
+            PendingLookup<T> lookup = new PendingLookup<>();
+            if (STATE_UPDATER.compareAndSet(this, null, lookup)) {
+                return lookup(lookup);
+            }
+            currentState = this.state;
+        }
+    }
+
+    private T lookup(PendingLookup<T> lookup) {
+        T instance;
+        try {
+            instance = this.handle.get();
+        } catch (ComponentException e) {
+            fail(lookup, e);
+            throw new RuntimeException("Failed to get the lazy component", e);
+        } catch (RuntimeException | Error e) {
+            fail(lookup, e);
+            throw e;
+        }
+
+        this.state = instance;
+        lookup.future.complete(instance);
+
+        return instance;
+    }
+
+    private void fail(PendingLookup<T> lookup, Throwable cause) {
+        // Let the next call try again
+        this.state = null;
+        lookup.future.completeExceptionally(cause);
+    }
+
+    private T waitForLookup(PendingLookup<T> lookup) {
+        if (lookup.thread == Thread.currentThread()) {
+            throw new RuntimeException("Failed to get the lazy component: it depends on itself");
+        }
+
+        try {
+            return lookup.future.join();
+        } catch (CompletionException e) {
+            throw new RuntimeException("Failed to get the lazy component", e.getCause());
+        }
+    }
+}
@@ -47,11 +47,46 @@ public interface ComponentManager {
      */
     <T> T getInstance(Type roleType, String roleHint) throws ComponentException;
 
+    /**
+     * Get a handle on a component, to call instead of {@link #getInstance(Type, String)} from code which looks up the
+     * same component repeatedly.
+     *
+     * @param <T> the component role type
+     * @param roleType the class that the component implements
+     * @param roleHint the hint that differentiates a component implementation from another one (the "default" hint being the default)
+     * @return the handle of the component, which can be obtained even before the component is registered
+     */
+    <T> ComponentHandle<T> getHandle(Type roleType, String roleHint);
+
+    /**
+     * Borrow an instance of a {@link ComponentInstantiationStrategy#POOLED} component, to give back with
+     * {@link #returnInstance(Type, String, Object)} once done with it. Same as {@link #getInstance(Type, String)}
+     * for the other components.
+     *
+     * @param <T> the component role type
+     * @param roleType the class that the component implements
+     * @param roleHint the hint that differentiates a component implementation from another one (the "default" hint being the default)
+     * @return an idle pooled instance, or a new one if the pool is empty
+     * @throws ComponentException when failing to create the component instance
+     */
+    <T> T borrowInstance(Type roleType, String roleHint) throws ComponentException;
+
+    /**
+     * Give back an instance obtained with {@link #borrowInstance(Type, String)}. The instance is recycled and kept for
+     * a next borrow, or disposed if the pool is full. Does nothing for components which are not pooled.
+     *
+     * @param roleType the class that the component implements
+     * @param roleHint the hint that differentiates a component implementation from another one (the "default" hint being the default)
+     * @param componentInstance the borrowed instance
+     */
+    void returnInstance(Type roleType, String roleHint, Object componentInstance);
+
     /**
      * Find component instance for all the components implementing the provided role.
+     * The components are ordered by {@link Priority} and then by hint.
      *
      * @param role the type of the components role
-     * @return the components
+     * @return the components, as an unmodifiable list
      * @param <T> the type of the components role
      * @throws ComponentLookupException if any error happen during component search
      */
@@ -113,7 +148,8 @@ public interface ComponentManager {
     /**
      * @param <T> the role class for which to return all component implementations
      * @param role the role class for which to return all component implementations
-     * @return all component implementations for the passed role
+     * @return all component implementations for the passed role, as an unmodifiable list ordered like
+     *         {@link #getInstanceList(Type)}
      */
     <T> List<ComponentDescriptor<T>> getComponentDescriptorList(Type role);
 
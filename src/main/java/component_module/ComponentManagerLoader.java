@@ -1,5 +1,6 @@
 package component_module;
 
+import java.io.File;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.LinkedHashSet;
@@ -13,28 +14,45 @@ public class ComponentManagerLoader {
 
     private ComponentDescriptorFactory factory;
 
+    private StartupTracer startupTracer;
+
     public ComponentManagerLoader() {
         factory = new ComponentDescriptorFactory();
     }
 
+    /**
+     * Register all the components listed in the component indexes generated at build time by
+     * {@link ComponentIndexProcessor}.
+     *
+     * @param manager the component manager in which to register the components
+     */
     public void initialize(DefaultComponentManager manager) {
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        initialize(manager, classLoader != null ? classLoader : getClass().getClassLoader());
+    }
+
+    /**
+     * @param manager the component manager in which to register the components
+     * @param classLoader the class loader in which to look for component indexes
+     */
+    @SuppressWarnings("try")
+    public void initialize(DefaultComponentManager manager, ClassLoader classLoader) {
+        this.startupTracer = manager.getStartupTracer();
+
+        List<ComponentDescriptor> descriptors;
+        try (StartupTracer.Span span = StartupTracer.begin(this.startupTracer, "descriptor", "index")) {
+            String cacheFile = System.getProperty(ComponentDescriptorCache.CACHE_FILE_PROPERTY);
+            descriptors = cacheFile != null
+                    ? new ComponentDescriptorCache(new File(cacheFile)).getDescriptors(classLoader)
+                    : new ComponentIndexReader().read(classLoader);
+        }
 
-//        registerComponent(manager, DefaultObservationManager.class);
-//
-//        // Environment
-//        registerComponent(manager, WebEnvironment.class);
-//
-//        // Mail components implementation
-//        registerComponent(manager, DefaultMailSenderConfiguration.class);
-//        registerComponent(manager, MailSenderInitializerListener.class);
-//        registerComponent(manager, SendMailRunnable.class);
-//        registerComponent(manager, FileSystemMailContentStore.class);
-//        registerComponent(manager, SendMailQueueManager.class);
-//        registerComponent(manager, DefaultMailSender.class);
-//        registerComponent(manager, DefaultSkinManager.class);
+        // Publish all the indexed components in one step
+        manager.registerComponents((List) descriptors);
     }
 
     public void registerComponent(DefaultComponentManager manager, Class<?> componentClass) {
+        this.startupTracer = manager.getStartupTracer();
 
         List<ComponentDescriptor> descriptors = getComponentsDescriptors(componentClass);
         for (ComponentDescriptor componentDescriptor : descriptors) {
@@ -46,11 +64,20 @@ public class ComponentManagerLoader {
         }
     }
 
+    @SuppressWarnings("try")
     public List<ComponentDescriptor> getComponentsDescriptors(Class<?> componentClass) {
 
+        Set<Type> componentRoleTypes;
+        try (StartupTracer.Span span = StartupTracer.begin(this.startupTracer, "roles", componentClass.getName())) {
+            componentRoleTypes = findComponentRoleTypes(componentClass);
+        }
+
         List<ComponentDescriptor> descriptors = new ArrayList<>();
-        for (Type componentRoleType : findComponentRoleTypes(componentClass)) {
-            descriptors.addAll(this.factory.createComponentDescriptors(componentClass, componentRoleType));
+        for (Type componentRoleType : componentRoleTypes) {
+            try (StartupTracer.Span span = StartupTracer.begin(this.startupTracer, "descriptor",
+                    componentClass.getName())) {
+                descriptors.addAll(this.factory.createComponentDescriptors(componentClass, componentRoleType));
+            }
         }
 
         return descriptors;
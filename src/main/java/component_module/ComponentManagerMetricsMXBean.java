@@ -0,0 +1,30 @@
+package component_module;
+
+/**
+ * JMX view of the metrics of a {@link DefaultComponentManager}, registered with
+ * {@link DefaultComponentManager#registerMetricsMBean()}.
+ *
+ * @author Hamza Ouni
+ */
+public interface ComponentManagerMetricsMXBean {
+
+    /**
+     * @return true if the metrics are being collected
+     */
+    boolean isEnabled();
+
+    /**
+     * @param enabled true to collect the metrics, false to stop and forget the collected ones
+     */
+    void setEnabled(boolean enabled);
+
+    /**
+     * @return the metrics of all the registered components
+     */
+    ComponentMetricsSnapshot[] getComponentMetrics();
+
+    /**
+     * Forget the collected metrics.
+     */
+    void reset();
+}
@@ -0,0 +1,99 @@
+package component_module;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runtime counters of a component, only maintained while the metrics of the component manager are enabled.
+ * Counters are striped {@link LongAdder}s so that threads looking up the same component don't contend on them.
+ *
+ * @author Hamza Ouni
+ */
+public class ComponentMetrics {
+
+    /**
+     * The number of buckets of the creation time histogram.
+     */
+    public static final int BUCKET_COUNT = 32;
+
+    /**
+     * The upper bound of the first bucket is 2^10 ns, about one microsecond.
+     */
+    private static final int FIRST_BUCKET_SHIFT = 10;
+
+    private final LongAdder lookups = new LongAdder();
+
+    private final LongAdder creations = new LongAdder();
+
+    private final LongAdder creationTime = new LongAdder();
+
+    private final LongAccumulator maxCreationTime = new LongAccumulator(Math::max, 0);
+
+    private final LongAdder[] creationTimeBuckets = new LongAdder[BUCKET_COUNT];
+
+    private final LongAdder singletonWaits = new LongAdder();
+
+    private final LongAdder singletonWaitTime = new LongAdder();
+
+    public ComponentMetrics() {
+        for (int i = 0; i < BUCKET_COUNT; ++i) {
+            this.creationTimeBuckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * @param bucket the index of a bucket of the creation time histogram
+     * @return the exclusive upper bound of the bucket in nanoseconds, {@link Long#MAX_VALUE} for the last one
+     */
+    public static long getBucketUpperBound(int bucket) {
+        return bucket < BUCKET_COUNT - 1 ? 1L << (bucket + FIRST_BUCKET_SHIFT) : Long.MAX_VALUE;
+    }
+
+    private static int getBucket(long nanos) {
+        int bucket = 64 - Long.numberOfLeadingZeros(nanos >>> FIRST_BUCKET_SHIFT);
+        return Math.min(bucket, BUCKET_COUNT - 1);
+    }
+
+    /**
+     * Count a lookup of the component.
+     */
+    public void recordLookup() {
+        this.lookups.increment();
+    }
+
+    /**
+     * @param nanos the time taken to create, inject and initialize a new instance, including the creation of its
+     *            dependencies
+     */
+    public void recordCreation(long nanos) {
+        this.creations.increment();
+        this.creationTime.add(nanos);
+        this.maxCreationTime.accumulate(nanos);
+        this.creationTimeBuckets[getBucket(nanos)].increment();
+    }
+
+    /**
+     * @param nanos the time a thread waited for another thread to create the singleton instance
+     */
+    public void recordSingletonWait(long nanos) {
+        this.singletonWaits.increment();
+        this.singletonWaitTime.add(nanos);
+    }
+
+    /**
+     * @param key the component
+     * @param implementation the implementation of the component
+     * @return the current values of the counters, which may be slightly inconsistent with each other when the
+     *         component is used at the same time
+     */
+    public ComponentMetricsSnapshot getSnapshot(ComponentKey key, Class<?> implementation) {
+        long[] histogram = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; ++i) {
+            histogram[i] = this.creationTimeBuckets[i].sum();
+        }
+
+        return new ComponentMetricsSnapshot(key.getRoleType().getTypeName(), key.getRoleHint(),
+                implementation.getName(), this.lookups.sum(), this.creations.sum(), this.creationTime.sum(),
+                this.maxCreationTime.get(), histogram, this.singletonWaits.sum(), this.singletonWaitTime.sum());
+    }
+}
@@ -0,0 +1,155 @@
+package component_module;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Values of the {@link ComponentMetrics} of a component at a given time. Times are in nanoseconds.
+ * The getters only return open types so that snapshots can be exposed as is through JMX.
+ *
+ * @author Hamza Ouni
+ */
+public class ComponentMetricsSnapshot {
+
+    private final String roleType;
+
+    private final String roleHint;
+
+    private final String implementation;
+
+    private final long lookupCount;
+
+    private final long creationCount;
+
+    private final long creationTime;
+
+    private final long maxCreationTime;
+
+    private final long[] creationTimeHistogram;
+
+    private final long singletonWaitCount;
+
+    private final long singletonWaitTime;
+
+    /**
+     * @param roleType the name of the role type of the component
+     * @param roleHint the hint of the component
+     * @param implementation the name of the implementation of the component
+     * @param lookupCount the number of lookups
+     * @param creationCount the number of created instances
+     * @param creationTime the total time spent creating instances
+     * @param maxCreationTime the longest time spent creating an instance
+     * @param creationTimeHistogram the number of instances created in each bucket of
+     *            {@link ComponentMetrics#getBucketUpperBound(int)}
+     * @param singletonWaitCount the number of times a thread waited for another one to create the singleton
+     * @param singletonWaitTime the total time spent waiting for another thread to create the singleton
+     */
+    public ComponentMetricsSnapshot(String roleType, String roleHint, String implementation, long lookupCount,
+            long creationCount, long creationTime, long maxCreationTime, long[] creationTimeHistogram,
+            long singletonWaitCount, long singletonWaitTime) {
+        this.roleType = roleType;
+        this.roleHint = roleHint;
+        this.implementation = implementation;
+        this.lookupCount = lookupCount;
+        this.creationCount = creationCount;
+        this.creationTime = creationTime;
+        this.maxCreationTime = maxCreationTime;
+        this.creationTimeHistogram = creationTimeHistogram;
+        this.singletonWaitCount = singletonWaitCount;
+        this.singletonWaitTime = singletonWaitTime;
+    }
+
+    /**
+     * @return the name of the role type of the component
+     */
+    public String getRoleType() {
+        return this.roleType;
+    }
+
+    /**
+     * @return the hint of the component
+     */
+    public String getRoleHint() {
+        return this.roleHint;
+    }
+
+    /**
+     * @return the name of the implementation of the component
+     */
+    public String getImplementation() {
+        return this.implementation;
+    }
+
+    /**
+     * @return the number of lookups, including the ones done through handles
+     */
+    public long getLookupCount() {
+        return this.lookupCount;
+    }
+
+    /**
+     * @return the number of created instances
+     */
+    public long getCreationCount() {
+        return this.creationCount;
+    }
+
+    /**
+     * @return the total time spent creating instances, including the creation of their dependencies
+     */
+    public long getCreationTime() {
+        return this.creationTime;
+    }
+
+    /**
+     * @return the longest time spent creating an instance
+     */
+    public long getMaxCreationTime() {
+        return this.maxCreationTime;
+    }
+
+    /**
+     * @return the number of instances created in each bucket of {@link ComponentMetrics#getBucketUpperBound(int)}
+     */
+    public long[] getCreationTimeHistogram() {
+        return this.creationTimeHistogram.clone();
+    }
+
+    /**
+     * @return the number of times a thread waited for another one to create the singleton
+     */
+    public long getSingletonWaitCount() {
+        return this.singletonWaitCount;
+    }
+
+    /**
+     * @return the total time spent waiting for another thread to create the singleton
+     */
+    public long getSingletonWaitTime() {
+        return this.singletonWaitTime;
+    }
+
+    /**
+     * @param percentile the percentile, between 0 and 100
+     * @return the upper bound of the histogram bucket containing the passed percentile of the creation times, or 0
+     *         if no instance has been created
+     */
+    public long estimateCreationTimePercentile(double percentile) {
+        long threshold = (long) Math.ceil(this.creationCount * percentile / 100);
+        long count = 0;
+        for (int i = 0; i < this.creationTimeHistogram.length; ++i) {
+            count += this.creationTimeHistogram[i];
+            if (count >= threshold && count > 0) {
+                return Math.min(ComponentMetrics.getBucketUpperBound(i), this.maxCreationTime);
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s[%s]: %d lookups, %d creations (total %d us, max %d us), %d singleton waits (%d us)",
+                this.roleType, this.roleHint, this.lookupCount, this.creationCount,
+                TimeUnit.NANOSECONDS.toMicros(this.creationTime), TimeUnit.NANOSECONDS.toMicros(this.maxCreationTime),
+                this.singletonWaitCount, TimeUnit.NANOSECONDS.toMicros(this.singletonWaitTime));
+    }
+}
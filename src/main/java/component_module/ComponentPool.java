@@ -0,0 +1,176 @@
+package component_module;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded pool of the injected instances of a {@link ComponentInstantiationStrategy#POOLED} component.
+ * The idle instances are kept in an array of slots which threads start scanning at different positions to limit
+ * contention, no lock is involved. Each thread can also keep the last instance it returned for its next borrow.
+ *
+ * @param <T> the component role type
+ * @author Hamza Ouni
+ */
+public class ComponentPool<T> {
+
+    /**
+     * The capacity of the pools of components without {@link PoolConfiguration}.
+     */
+    public static final int DEFAULT_CAPACITY = 16;
+
+    private static final Logger logger = LoggerFactory.getLogger(ComponentPool.class);
+
+    private final Callable<T> factory;
+
+    private final AtomicReferenceArray<T> slots;
+
+    private final ThreadLocal<T> threadCache;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder returns = new LongAdder();
+
+    private final LongAdder discards = new LongAdder();
+
+    private volatile boolean closed;
+
+    /**
+     * @param factory creates a new injected instance when the pool is empty
+     * @param capacity the maximum number of idle instances kept in the shared pool
+     * @param threadLocalCache true if each thread keeps the last instance it returned for its next borrow
+     */
+    public ComponentPool(Callable<T> factory, int capacity, boolean threadLocalCache) {
+        this.factory = factory;
+        this.slots = new AtomicReferenceArray<>(Math.max(capacity, 1));
+        this.threadCache = threadLocalCache ? new ThreadLocal<>() : null;
+    }
+
+    /**
+     * @return an idle instance or a new one if there is none
+     * @throws Exception when failing to create a new instance
+     */
+    public T borrow() throws Exception {
+        if (this.threadCache != null) {
+            T instance = this.threadCache.get();
+            if (instance != null) {
+                this.threadCache.remove();
+                this.hits.increment();
+                return instance;
+            }
+        }
+
+        int length = this.slots.length();
+        int start = getStripe(length);
+        for (int i = 0; i < length; ++i) {
+            int index = (start + i) % length;
+            if (this.slots.get(index) != null) {
+                T instance = this.slots.getAndSet(index, null);
+                if (instance != null) {
+                    this.hits.increment();
+                    return instance;
+                }
+            }
+        }
+
+        this.misses.increment();
+        return this.factory.call();
+    }
+
+    /**
+     * Recycle the instance and keep it for a next borrow, or dispose it if the pool is full.
+     *
+     * @param instance the instance to give back to the pool
+     */
+    public void giveBack(T instance) {
+        if (instance instanceof Recyclable) {
+            try {
+                ((Recyclable) instance).recycle();
+            } catch (Exception e) {
+                logger.warn("Failed to recycle pooled component [{}], discarding it", instance.getClass().getName(),
+                        e);
+                discard(instance);
+                return;
+            }
+        }
+
+        if (!this.closed) {
+            if (this.threadCache != null && this.threadCache.get() == null) {
+                this.threadCache.set(instance);
+                this.returns.increment();
+                return;
+            }
+
+            int length = this.slots.length();
+            int start = getStripe(length);
+            for (int i = 0; i < length; ++i) {
+                if (this.slots.compareAndSet((start + i) % length, null, instance)) {
+                    this.returns.increment();
+                    return;
+                }
+            }
+        }
+
+        discard(instance);
+    }
+
+    /**
+     * Dispose all the idle instances of the shared pool. Instances kept by the threads for their next borrow are
+     * left alone.
+     */
+    public void clear() {
+        for (int i = 0; i < this.slots.length(); ++i) {
+            T instance = this.slots.getAndSet(i, null);
+            if (instance != null) {
+                dispose(instance);
+            }
+        }
+    }
+
+    /**
+     * Dispose all the idle instances, instances given back after that are disposed right away.
+     */
+    public void close() {
+        this.closed = true;
+        clear();
+    }
+
+    /**
+     * @return the current statistics of the pool
+     */
+    public ComponentPoolStatistics getStatistics() {
+        int idle = 0;
+        for (int i = 0; i < this.slots.length(); ++i) {
+            if (this.slots.get(i) != null) {
+                ++idle;
+            }
+        }
+
+        return new ComponentPoolStatistics(this.hits.sum(), this.misses.sum(), this.returns.sum(),
+                this.discards.sum(), idle, this.slots.length());
+    }
+
+    private int getStripe(int length) {
+        return (int) (Thread.currentThread().getId() % length);
+    }
+
+    private void discard(T instance) {
+        this.discards.increment();
+        dispose(instance);
+    }
+
+    private void dispose(T instance) {
+        if (instance instanceof Disposable) {
+            try {
+                ((Disposable) instance).dispose();
+            } catch (Exception e) {
+                logger.warn("Failed to dispose pooled component [{}]", instance.getClass().getName(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package component_module;
+
+/**
+ * Usage statistics of a {@link ComponentPool}.
+ *
+ * @author Hamza Ouni
+ */
+public class ComponentPoolStatistics {
+
+    private final long hits;
+
+    private final long misses;
+
+    private final long returns;
+
+    private final long discards;
+
+    private final int idle;
+
+    private final int capacity;
+
+    /**
+     * @param hits the number of borrows served by an idle instance
+     * @param misses the number of borrows which had to create a new instance
+     * @param returns the number of instances given back and kept for reuse
+     * @param discards the number of instances given back and disposed because the pool was full or closed
+     * @param idle the number of idle instances in the shared pool
+     * @param capacity the capacity of the shared pool
+     */
+    public ComponentPoolStatistics(long hits, long misses, long returns, long discards, int idle, int capacity) {
+        this.hits = hits;
+        this.misses = misses;
+        this.returns = returns;
+        this.discards = discards;
+        this.idle = idle;
+        this.capacity = capacity;
+    }
+
+    /**
+     * @return the number of borrows served by an idle instance
+     */
+    public long getHits() {
+        return this.hits;
+    }
+
+    /**
+     * @return the number of borrows which had to create a new instance
+     */
+    public long getMisses() {
+        return this.misses;
+    }
+
+    /**
+     * @return the number of instances given back and kept for reuse
+     */
+    public long getReturns() {
+        return this.returns;
+    }
+
+    /**
+     * @return the number of instances given back and disposed because the pool was full or closed
+     */
+    public long getDiscards() {
+        return this.discards;
+    }
+
+    /**
+     * @return the number of idle instances in the shared pool
+     */
+    public int getIdle() {
+        return this.idle;
+    }
+
+    /**
+     * @return the capacity of the shared pool
+     */
+    public int getCapacity() {
+        return this.capacity;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("hits=%d misses=%d returns=%d discards=%d idle=%d/%d", this.hits, this.misses,
+                this.returns, this.discards, this.idle, this.capacity);
+    }
+}
@@ -0,0 +1,30 @@
+package component_module;
+
+import javax.inject.Provider;
+
+/**
+ * Provider injected for {@code Provider<T>} dependencies, each call to {@link #get()} looks the component up.
+ *
+ * @param <T> the component role type
+ * @author Hamza Ouni
+ */
+public class ComponentProvider<T> implements Provider<T> {
+
+    private final ComponentHandle<T> handle;
+
+    /**
+     * @param handle the handle of the provided component
+     */
+    public ComponentProvider(ComponentHandle<T> handle) {
+        this.handle = handle;
+    }
+
+    @Override
+    public T get() {
+        try {
+            return this.handle.get();
+        } catch (ComponentException e) {
+            throw new RuntimeException("Failed to get the provided component", e);
+        }
+    }
+}
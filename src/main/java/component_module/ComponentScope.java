@@ -0,0 +1,119 @@
+package component_module;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Holds the instances of the {@link ComponentInstantiationStrategy#SCOPED} components created while the scope is
+ * the current scope of a thread, typically for the duration of a request. Scopes are opened with
+ * {@link DefaultComponentManager#openScope()}, closing the scope disposes its instances.
+ *
+ * @author Hamza Ouni
+ */
+public class ComponentScope implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ComponentScope.class);
+
+    private final DefaultComponentManager componentManager;
+
+    private final ComponentScope previousScope;
+
+    private final Map<Object, Object> instances = new ConcurrentHashMap<>();
+
+    /**
+     * The instances in creation order, disposed in reverse order so that dependents go first.
+     */
+    private final Deque<Object> creationOrder = new ConcurrentLinkedDeque<>();
+
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    ComponentScope(DefaultComponentManager componentManager, ComponentScope previousScope) {
+        this.componentManager = componentManager;
+        this.previousScope = previousScope;
+    }
+
+    /**
+     * @return the scope which was current when this one was opened, restored when this one is closed
+     */
+    ComponentScope getPreviousScope() {
+        return this.previousScope;
+    }
+
+    /**
+     * @param key the component
+     * @return the instance of the component in this scope or null if it hasn't been created yet
+     */
+    Object get(Object key) {
+        return this.instances.get(key);
+    }
+
+    /**
+     * Keep the instance unless another one was created concurrently for the same component, in which case the
+     * passed instance is disposed.
+     *
+     * @param key the component
+     * @param instance the new instance
+     * @return the instance to use
+     * @throws ComponentException if the scope has been closed
+     */
+    Object putIfAbsent(Object key, Object instance) throws ComponentException {
+        if (this.closed.get()) {
+            dispose(instance);
+            throw new ComponentException("The component scope has been closed");
+        }
+
+        Object existingInstance = this.instances.putIfAbsent(key, instance);
+        if (existingInstance != null) {
+            dispose(instance);
+            return existingInstance;
+        }
+        this.creationOrder.add(instance);
+
+        return instance;
+    }
+
+    /**
+     * @return true if the scope has been closed
+     */
+    public boolean isClosed() {
+        return this.closed.get();
+    }
+
+    /**
+     * Same as {@link DefaultComponentManager#closeScope(ComponentScope)}.
+     */
+    @Override
+    public void close() {
+        this.componentManager.closeScope(this);
+    }
+
+    /**
+     * Dispose all the instances of the scope, the last created first.
+     */
+    void disposeInstances() {
+        if (this.closed.compareAndSet(false, true)) {
+            for (Iterator<Object> it = this.creationOrder.descendingIterator(); it.hasNext();) {
+                dispose(it.next());
+            }
+            this.creationOrder.clear();
+            this.instances.clear();
+        }
+    }
+
+    private void dispose(Object instance) {
+        if (instance instanceof Disposable) {
+            try {
+                ((Disposable) instance).dispose();
+            } catch (Exception e) {
+                logger.warn("Failed to dispose scoped component [{}]", instance.getClass().getName(), e);
+            }
+        }
+    }
+}
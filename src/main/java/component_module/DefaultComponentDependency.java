@@ -12,6 +12,8 @@ public class DefaultComponentDependency<T> implements ComponentDependency<T> {
     private String name;
     private Type roleType;
     private String roleHint = "default";
+    private InjectionPointType injectionPointType = InjectionPointType.FIELD;
+    private int parameterIndex;
 
     public DefaultComponentDependency() {
 
@@ -22,6 +24,8 @@ public class DefaultComponentDependency<T> implements ComponentDependency<T> {
         setName(dependency.getName());
         setRoleType(dependency.getRoleType());
         setRoleHint(dependency.getRoleHint());
+        setInjectionPointType(dependency.getInjectionPointType());
+        setParameterIndex(dependency.getParameterIndex());
     }
 
     @Override
@@ -39,7 +43,7 @@ public class DefaultComponentDependency<T> implements ComponentDependency<T> {
     }
 
     public void setRoleType(Type roleType) {
-        this.roleType = roleType;
+        this.roleType = TypeInterner.intern(roleType);
     }
 
     @Override
@@ -51,6 +55,30 @@ public class DefaultComponentDependency<T> implements ComponentDependency<T> {
         this.roleHint = roleHint;
     }
 
+    @Override
+    public InjectionPointType getInjectionPointType() {
+        return this.injectionPointType;
+    }
+
+    public void setInjectionPointType(InjectionPointType injectionPointType) {
+        this.injectionPointType = injectionPointType;
+    }
+
+    @Override
+    public int getParameterIndex() {
+        return this.parameterIndex;
+    }
+
+    public void setParameterIndex(int parameterIndex) {
+        this.parameterIndex = parameterIndex;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s %s[%s]", getName(), getRoleType() != null ? getRoleType().getTypeName() : null,
+                getRoleHint());
+    }
+
     private boolean equals(ComponentDependency dependency) {
         return super.equals(dependency) && Objects.equals(getName(), dependency.getName());
     }
@@ -18,6 +18,10 @@ public class DefaultComponentDescriptor<T> implements ComponentDescriptor<T> {
     private Class<? extends T> implementation;
     private ComponentInstantiationStrategy instantiationStrategy = ComponentInstantiationStrategy.SINGLETON;
     private List<ComponentDependency<?>> componentDependencies = new ArrayList<ComponentDependency<?>>();
+    /**
+     * Null until a method is added, the methods of the dependencies are injected then.
+     */
+    private List<String> injectedMethods;
 
     private Type roleType;
     private String roleHint;
@@ -42,6 +46,9 @@ public class DefaultComponentDescriptor<T> implements ComponentDescriptor<T> {
         for (ComponentDependency<?> dependency : descriptor.getComponentDependencies()) {
             addComponentDependency(new DefaultComponentDependency(dependency));
         }
+        for (String method : descriptor.getInjectedMethods()) {
+            addInjectedMethod(method);
+        }
     }
 
     @Override
@@ -71,13 +78,29 @@ public class DefaultComponentDescriptor<T> implements ComponentDescriptor<T> {
         this.componentDependencies.add(componentDependency);
     }
 
+    @Override
+    public Collection<String> getInjectedMethods() {
+        return this.injectedMethods != null ? this.injectedMethods : ComponentDescriptor.super.getInjectedMethods();
+    }
+
+    /**
+     * @param signature the signature of an {@code @Inject} method, as returned by
+     *            {@link ReflectionUtils#getMethodSignature(java.lang.reflect.Method)}
+     */
+    public void addInjectedMethod(String signature) {
+        if (this.injectedMethods == null) {
+            this.injectedMethods = new ArrayList<>();
+        }
+        this.injectedMethods.add(signature);
+    }
+
     @Override
     public Type getRoleType() {
         return roleType;
     }
 
     public void setRoleType(Type roleType) {
-        this.roleType = roleType;
+        this.roleType = TypeInterner.intern(roleType);
     }
 
     @Override
@@ -106,7 +129,8 @@ public class DefaultComponentDescriptor<T> implements ComponentDescriptor<T> {
                 result =
                         super.equals(cd) && Objects.equals(getImplementation(), cd.getImplementation())
                                 && Objects.equals(getInstantiationStrategy(), cd.getInstantiationStrategy())
-                                && Objects.equals(getComponentDependencies(), cd.getComponentDependencies());
+                                && Objects.equals(getComponentDependencies(), cd.getComponentDependencies())
+                                && Objects.equals(getInjectedMethods(), cd.getInjectedMethods());
             }
         }
 
@@ -121,6 +145,7 @@ public class DefaultComponentDescriptor<T> implements ComponentDescriptor<T> {
         builder.append(getImplementation());
         builder.append(getInstantiationStrategy());
         builder.append(getComponentDependencies());
+        builder.append(getInjectedMethods());
 
         return builder.toHashCode();
     }
@@ -3,10 +3,27 @@ package component_module;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.inject.Provider;
 import javax.inject.Singleton;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * Default implementation of ComponentManager.
@@ -19,120 +36,1694 @@ public class DefaultComponentManager implements ComponentManager {
 
     private static final Logger logger = LoggerFactory.getLogger(DefaultComponentManager.class);
 
+    /**
+     * How often a thread waiting for a singleton created by another thread checks for a dependency cycle.
+     */
+    private static final long CYCLE_CHECK_INTERVAL = 100;
+
+    private static final AtomicReferenceFieldUpdater<ComponentEntry, Object> INSTANCE_UPDATER =
+            AtomicReferenceFieldUpdater.newUpdater(ComponentEntry.class, Object.class, "instance");
+
+    private static final AtomicReferenceFieldUpdater<SingletonCell, Object> CELL_INSTANCE_UPDATER =
+            AtomicReferenceFieldUpdater.newUpdater(SingletonCell.class, Object.class, "instance");
+
+    private static final AtomicReferenceFieldUpdater<ComponentEntry, ComponentPool> POOL_UPDATER =
+            AtomicReferenceFieldUpdater.newUpdater(ComponentEntry.class, ComponentPool.class, "pool");
+
     public DefaultComponentManager() {
+        this(null);
+    }
+
+    /**
+     * @param parent the manager in which to look for the components which are not registered in this one, or null
+     */
+    protected DefaultComponentManager(DefaultComponentManager parent) {
+        this.parent = parent;
+        if (parent != null) {
+            this.creationStack = parent.creationStack;
+            this.waitingThreads = parent.waitingThreads;
+            parent.addChild(this);
+        } else {
+            this.creationStack = ThreadLocal.withInitial(ArrayList::new);
+            this.waitingThreads = new ConcurrentHashMap<>();
+        }
+    }
+
+    private static class ComponentEntry<R> {
+        // The manager in which the component is registered, which creates its instances.
+        public final DefaultComponentManager manager;
+        // Role type and hint of the component.
+        public final ComponentKey key;
+        // Descriptor of the component.
+        public final ComponentDescriptor<R> descriptor;
+        /**
+         * Cached instance of the component. Lazily initialized when needed.
+         * Volatile to ensure it's really shared and sync between all threads.
+         */
+        public volatile R instance;
+        /**
+         * True once the component has been unregistered or replaced, handles pointing to this entry must look it up
+         * again.
+         */
+        public volatile boolean removed;
+        /**
+         * The singleton shared by the singleton entries with the same implementation and hint, null for the other
+         * entries. Set before the entry is published.
+         */
+        public SingletonCell cell;
+        /**
+         * Resolved injection plan of the component. Built at registration, or on the first instance creation when it
+         * failed then so that the error is reported to the lookup.
+         */
+        private volatile InjectionPlan<R> injectionPlan;
+        /**
+         * Idle instances of a pooled component. Lazily initialized on the first borrow.
+         */
+        public volatile ComponentPool<R> pool;
+        /**
+         * Instance of each thread for a {@link ComponentInstantiationStrategy#THREAD} component, null for the other
+         * components.
+         */
+        public final ThreadLocal<R> threadInstance;
+        /**
+         * Runtime counters of the component, null when the metrics are disabled.
+         */
+        public volatile ComponentMetrics metrics;
+        /**
+         * The entry injected in each dependency, in the order of the injection plan. Lazily bound on the first
+         * instance creation, and bound again one by one when they become stale.
+         */
+        public volatile DependencyEdge[] dependencyEdges;
+
+        public ComponentEntry(DefaultComponentManager manager, ComponentKey key, ComponentDescriptor<R> descriptor,
+                R instance) {
+            this.manager = manager;
+            this.key = key;
+            this.descriptor = descriptor;
+            this.instance = instance;
+            this.threadInstance = descriptor != null
+                    && descriptor.getInstantiationStrategy() == ComponentInstantiationStrategy.THREAD
+                    ? new ThreadLocal<>() : null;
+        }
+
+        public InjectionPlan<R> getInjectionPlan() {
+            InjectionPlan<R> plan = this.injectionPlan;
+            if (plan == null) {
+                // Building the plan twice is harmless so don't bother locking
+                plan = new InjectionPlan<>(this.descriptor);
+                this.injectionPlan = plan;
+            }
+            return plan;
+        }
+
+    }
+
+    /**
+     * How a dependency is resolved, depending on its type.
+     */
+    private enum DependencyKind {
+        COMPONENT,
+        PROVIDER,
+        LAZY,
+        LIST,
+        SET,
+        MAP
+    }
+
+    /**
+     * A dependency of a component bound to the component injected in it.
+     */
+    private static final class DependencyEdge {
+        /**
+         * The injected component, or the component explicitly registered for the type of a Provider or collection
+         * dependency, or null if it's missing.
+         */
+        public final ComponentEntry<?> target;
+
+        public final DependencyKind kind;
+
+        /**
+         * The type provided by a {@link Provider} or {@link Lazy} dependency, or the role of the elements of a
+         * collection dependency, null for the other dependencies.
+         */
+        public final Type providedType;
+
+        /**
+         * The read-only view injected in a collection dependency, shared by all the instances.
+         */
+        public final Object view;
+
+        /**
+         * The generation which tells when the edge may be stale: the registry version for a missing target, the
+         * inherited generation for an inherited one.
+         */
+        public final int generation;
+
+        DependencyEdge(ComponentEntry<?> target, DependencyKind kind, Type providedType, Object view,
+                int generation) {
+            this.target = target;
+            this.kind = kind;
+            this.providedType = providedType;
+            this.view = view;
+            this.generation = generation;
+        }
+    }
+
+    /**
+     * The singleton instance of an implementation and hint, shared by all the roles it's registered for so that it's
+     * created and disposed once. Each entry keeps its own reference to the instance for the lookups.
+     */
+    private static final class SingletonCell {
+        /**
+         * The implementation and hint, null for a cell holding an instance passed at registration, which is not
+         * shared.
+         */
+        public final ComponentKey key;
+
+        public volatile Object instance;
+
+        /**
+         * The singleton creation in progress, if any. Other threads wait for it instead of creating another instance.
+         */
+        public final AtomicReference<SingletonCreation<?>> creation = new AtomicReference<>();
+
+        public final Set<ComponentEntry<?>> entries = ConcurrentHashMap.newKeySet();
+
+        SingletonCell(ComponentKey key, Object instance) {
+            this.key = key;
+            this.instance = instance;
+        }
+    }
+
+    /**
+     * A singleton instance being created by a thread.
+     */
+    private static class SingletonCreation<R> {
+        public final Thread thread = Thread.currentThread();
+
+        public final CompletableFuture<R> future = new CompletableFuture<>();
+    }
+
+    /**
+     * The components being created by the current thread, used to detect dependency cycles. Shared by all the
+     * managers of a hierarchy since the creation of a component can go through several of them.
+     */
+    private final ThreadLocal<List<ComponentEntry<?>>> creationStack;
+
+    /**
+     * The singleton each thread is waiting for, used to detect dependency cycles between threads. Shared by all the
+     * managers of a hierarchy so that a thread waiting in one manager is seen from the others.
+     */
+    private final Map<Thread, ComponentEntry<?>> waitingThreads;
+
+    /**
+     * True when the {@link ComponentMetrics} of the components are maintained.
+     */
+    private volatile boolean metricsEnabled;
+
+    private ObjectName metricsName;
+
+    /**
+     * Records the creation of the components, null when tracing is disabled.
+     */
+    private volatile StartupTracer startupTracer;
+
+    /**
+     * The scope opened by each thread, if any.
+     */
+    private final ThreadLocal<ComponentScope> currentScope = new ThreadLocal<>();
+
+    /**
+     * Key comparing instances by identity, whatever their equals and hashCode implementations.
+     */
+    private static final class InstanceKey {
+        private final Object instance;
+
+        InstanceKey(Object instance) {
+            this.instance = instance;
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            return object instanceof InstanceKey && ((InstanceKey) object).instance == this.instance;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(this.instance);
+        }
+    }
+
+    /**
+     * The entry holding each live singleton instance. An instance is removed as soon as it's released so that the
+     * index never keeps it alive.
+     */
+    private final Map<InstanceKey, ComponentEntry<?>> instanceEntries = new ConcurrentHashMap<>();
+
+    /**
+     * All the registered components.
+     */
+    private final Map<ComponentKey, ComponentEntry<?>> componentEntries = new ConcurrentHashMap<>();
+
+    /**
+     * The shared singletons, by implementation and hint.
+     */
+    private final Map<ComponentKey, SingletonCell> singletonCells = new ConcurrentHashMap<>();
+
+    /**
+     * The components registered with the default hint, most lookups don't provide any hint.
+     */
+    private final Map<Type, ComponentEntry<?>> defaultComponentEntries = new ConcurrentHashMap<>();
+
+    /**
+     * The components of each role, only used to list them.
+     */
+    private final Map<Type, RoleEntries> roleEntries = new ConcurrentHashMap<>();
+
+    /**
+     * The manager in which to look for the components which are not registered in this one, or null.
+     */
+    private final DefaultComponentManager parent;
+
+    /**
+     * The managers whose parent is this one, notified of each modification of the registry.
+     */
+    private volatile List<WeakReference<DefaultComponentManager>> children = Collections.emptyList();
+
+    /**
+     * Marks the lack of a component in the ancestors in {@link #inheritedEntries}.
+     */
+    private static final ComponentEntry<?> NO_ENTRY = new ComponentEntry<>(null, null, null, null);
+
+    private static final ComponentEntry<?>[] NO_ENTRIES = new ComponentEntry<?>[0];
+
+    /**
+     * The entries of the ancestors resolved so far, and the components missing from them. Cleared when any ancestor
+     * is modified.
+     */
+    private final Map<ComponentKey, ComponentEntry<?>> inheritedEntries = new ConcurrentHashMap<>();
+
+    /**
+     * The components of each role merged with the ones of the ancestors, cleared when any ancestor is modified.
+     */
+    private final Map<Type, RoleSnapshot> inheritedRoleSnapshots = new ConcurrentHashMap<>();
+
+    /**
+     * Incremented when the components inherited from the ancestors may have changed, including when they are
+     * overridden in this manager.
+     */
+    private final AtomicInteger inheritedGeneration = new AtomicInteger();
+
+    /**
+     * Incremented after each modification of the registry of this manager or of its ancestors, tells when a missing
+     * dependency may have been registered.
+     */
+    private final AtomicInteger registryVersion = new AtomicInteger();
+
+    /**
+     * True when a subclass resolves the dependencies itself, in which case they are not bound to their entries.
+     */
+    private final boolean dependencyInstanceOverridden = isDependencyInstanceOverridden(getClass());
+
+    /**
+     * Taken in shared mode by the registration of a single component, which is atomic through
+     * {@link ConcurrentHashMap#compute}, and in exclusive mode by {@link #registerComponents(Collection)}. Lookups
+     * never take it.
+     */
+    private final ReentrantReadWriteLock registrationLock = new ReentrantReadWriteLock();
+
+    /**
+     * Incremented before and after {@link #registerComponents(Collection)} publishes its entries, so that it's odd
+     * while they are being published.
+     */
+    private final AtomicInteger batchCount = new AtomicInteger();
+
+    /**
+     * The entries of the batch being published, looked up first while {@link #batchCount} is odd so that the whole
+     * batch becomes visible at once.
+     */
+    private volatile Map<ComponentKey, ComponentEntry<?>> publishingBatch;
+
+    /**
+     * The components implementing a role, with a cached and ordered snapshot of them.
+     */
+    private static class RoleEntries {
+        public final Map<String, ComponentEntry<?>> entries = new ConcurrentHashMap<>();
+
+        /**
+         * Incremented after each modification of {@link #entries}.
+         */
+        private final AtomicInteger version = new AtomicInteger();
+
+        /**
+         * Incremented before and after each batch, so that it's odd while a batch is being applied.
+         */
+        private final AtomicInteger batchCount = new AtomicInteger();
+
+        private volatile RoleSnapshot snapshot;
+
+        /**
+         * The snapshot of the entries before the batch being applied, returned to readers until the batch is done.
+         */
+        private volatile RoleSnapshot batchSnapshot;
+
+        public void put(String hint, ComponentEntry<?> entry) {
+            this.entries.put(hint, entry);
+            this.version.incrementAndGet();
+        }
+
+        public synchronized void putAll(Map<String, ComponentEntry<?>> batch) {
+            this.batchSnapshot = getSnapshot();
+            this.batchCount.incrementAndGet();
+            this.entries.putAll(batch);
+            this.version.incrementAndGet();
+            this.batchCount.incrementAndGet();
+            this.batchSnapshot = null;
+        }
+
+        public void remove(String hint, ComponentEntry<?> entry) {
+            if (this.entries.remove(hint, entry)) {
+                this.version.incrementAndGet();
+            }
+        }
+
+        public RoleSnapshot getSnapshot() {
+            while (true) {
+                int currentBatchCount = this.batchCount.get();
+                if ((currentBatchCount & 1) != 0) {
+                    // The batch snapshot is set before the count becomes odd, and is null once the batch is done
+                    RoleSnapshot previousSnapshot = this.batchSnapshot;
+                    if (previousSnapshot != null) {
+                        return previousSnapshot;
+                    }
+                    continue;
+                }
+
+                RoleSnapshot currentSnapshot = this.snapshot;
+                int currentVersion = this.version.get();
+                if (currentSnapshot != null && currentSnapshot.version == currentVersion) {
+                    return currentSnapshot;
+                }
+
+                // The version is read before the entries so a snapshot mixing two versions is never considered
+                // up to date, and a snapshot overlapping a batch is thrown away
+                currentSnapshot = new RoleSnapshot(currentVersion, this.entries.values());
+                if (this.batchCount.get() == currentBatchCount) {
+                    this.snapshot = currentSnapshot;
+                    return currentSnapshot;
+                }
+            }
+        }
+    }
+
+    /**
+     * Immutable view of the components implementing a role, sorted by {@link Priority} and then by hint.
+     */
+    private static class RoleSnapshot {
+        public final int version;
+
+        public final ComponentEntry<?>[] entries;
+
+        public final List<ComponentDescriptor<?>> descriptors;
+
+        RoleSnapshot(int version, Collection<ComponentEntry<?>> roleEntries) {
+            this.version = version;
+
+            List<ComponentEntry<?>> sortedEntries = new ArrayList<>(roleEntries);
+            sortedEntries.sort(Comparator.comparingInt(RoleSnapshot::getPriority)
+                    .thenComparing(entry -> entry.key.getRoleHint()));
+            this.entries = sortedEntries.toArray(new ComponentEntry<?>[sortedEntries.size()]);
+
+            List<ComponentDescriptor<?>> entryDescriptors = new ArrayList<>(this.entries.length);
+            for (ComponentEntry<?> entry : this.entries) {
+                entryDescriptors.add(entry.descriptor);
+            }
+            this.descriptors = Collections.unmodifiableList(entryDescriptors);
+        }
+
+        private static int getPriority(ComponentEntry<?> entry) {
+            Priority priority = entry.descriptor.getImplementation().getAnnotation(Priority.class);
+            return priority != null ? priority.value() : Priority.DEFAULT;
+        }
+    }
+
+    /**
+     * A component of the frozen registry, with its singleton instance if it was created before the freeze.
+     */
+    private static final class FrozenEntry {
+        public final ComponentEntry<?> entry;
+
+        public final Object instance;
+
+        FrozenEntry(ComponentEntry<?> entry, Object instance) {
+            this.entry = entry;
+            this.instance = instance;
+        }
+    }
+
+    /**
+     * The immutable copy of the registry looked up first, once frozen.
+     */
+    private final AtomicReference<FrozenRegistry<FrozenEntry>> frozenRegistry = new AtomicReference<>();
+
+    private volatile FrozenRegistrationPolicy frozenPolicy;
+
+    private ComponentEntry<?> getComponentEntry(Type roleType, String hint) {
+        // The registry is keyed by canonical types
+        Type role = TypeInterner.intern(roleType);
+        FrozenRegistry<FrozenEntry> frozen = this.frozenRegistry.get();
+        if (frozen != null) {
+            FrozenEntry frozenEntry = frozen.get(role, hint);
+            if (frozenEntry != null) {
+                return frozenEntry.entry;
+            }
+        }
+
+        ComponentEntry<?> componentEntry = getRegisteredEntry(role, hint);
+        if (componentEntry == null && this.parent != null) {
+            componentEntry = getInheritedEntry(role, hint);
+        }
+
+        return componentEntry;
+    }
+
+    /**
+     * @return the entry registered in this manager, seeing either none or all the entries of a batch
+     */
+    private ComponentEntry<?> getRegisteredEntry(Type role, String hint) {
+        while (true) {
+            int currentBatchCount = this.batchCount.get();
+            if ((currentBatchCount & 1) != 0) {
+                // The batch is set before the count becomes odd, and is null once the batch is published
+                Map<ComponentKey, ComponentEntry<?>> batch = this.publishingBatch;
+                if (batch != null) {
+                    ComponentKey key = new ComponentKey(role, hint);
+                    ComponentEntry<?> componentEntry = batch.get(key);
+                    return componentEntry != null ? componentEntry : this.componentEntries.get(key);
+                }
+                continue;
+            }
+
+            ComponentEntry<?> componentEntry = ComponentKey.isDefaultHint(hint)
+                    ? this.defaultComponentEntries.get(role) : this.componentEntries.get(new ComponentKey(role, hint));
+            // A lookup overlapping a batch may have seen only part of it
+            if (this.batchCount.get() == currentBatchCount) {
+                return componentEntry;
+            }
+        }
+    }
+
+    private ComponentEntry<?> getInheritedEntry(Type role, String hint) {
+        ComponentKey key = new ComponentKey(role, hint);
+        ComponentEntry<?> componentEntry = this.inheritedEntries.get(key);
+        if (componentEntry == null || componentEntry.removed) {
+            int generation = this.inheritedGeneration.get();
+            componentEntry = this.parent.getComponentEntry(role, hint);
+            ComponentEntry<?> cachedEntry = componentEntry != null ? componentEntry : NO_ENTRY;
+            this.inheritedEntries.put(key, cachedEntry);
+            if (generation != this.inheritedGeneration.get()) {
+                // An ancestor has been modified in the meantime
+                this.inheritedEntries.remove(key, cachedEntry);
+            }
+        } else if (componentEntry == NO_ENTRY) {
+            componentEntry = null;
+        }
+
+        return componentEntry;
+    }
+
+    /**
+     * @return the components of the role, including the ones inherited from the ancestors, or null if there are none
+     */
+    private RoleSnapshot getRoleSnapshot(Type roleType) {
+        Type role = TypeInterner.intern(roleType);
+        RoleEntries entries = this.roleEntries.get(role);
+        RoleSnapshot ownSnapshot = entries != null ? entries.getSnapshot() : null;
+        if (this.parent == null) {
+            return ownSnapshot;
+        }
+
+        int ownVersion = ownSnapshot != null ? ownSnapshot.version : -1;
+        RoleSnapshot snapshot = this.inheritedRoleSnapshots.get(role);
+        if (snapshot == null || snapshot.version != ownVersion) {
+            int generation = this.inheritedGeneration.get();
+
+            // The components of this manager override the ones of the ancestors with the same hint
+            Map<String, ComponentEntry<?>> mergedEntries = new HashMap<>();
+            RoleSnapshot parentSnapshot = this.parent.getRoleSnapshot(role);
+            if (parentSnapshot != null) {
+                for (ComponentEntry<?> componentEntry : parentSnapshot.entries) {
+                    mergedEntries.put(componentEntry.key.getRoleHint(), componentEntry);
+                }
+            }
+            if (ownSnapshot != null) {
+                for (ComponentEntry<?> componentEntry : ownSnapshot.entries) {
+                    mergedEntries.put(componentEntry.key.getRoleHint(), componentEntry);
+                }
+            }
+
+            snapshot = new RoleSnapshot(ownVersion, mergedEntries.values());
+            this.inheritedRoleSnapshots.put(role, snapshot);
+            if (generation != this.inheritedGeneration.get()) {
+                this.inheritedRoleSnapshots.remove(role, snapshot);
+            }
+        }
+
+        return snapshot;
+    }
+
+    /**
+     * @return the manager in which to look for the components which are not registered in this one, or null
+     */
+    public DefaultComponentManager getParent() {
+        return this.parent;
+    }
+
+    private synchronized void addChild(DefaultComponentManager child) {
+        List<WeakReference<DefaultComponentManager>> newChildren = new ArrayList<>(this.children.size() + 1);
+        for (WeakReference<DefaultComponentManager> reference : this.children) {
+            if (reference.get() != null) {
+                newChildren.add(reference);
+            }
+        }
+        newChildren.add(new WeakReference<>(child));
+        this.children = newChildren;
+    }
+
+    /**
+     * Stop delegating to the parent the notifications of its modifications. The lookups still go to the parent.
+     */
+    protected void detachFromParent() {
+        if (this.parent != null) {
+            this.parent.removeChild(this);
+        }
+    }
+
+    private synchronized void removeChild(DefaultComponentManager child) {
+        List<WeakReference<DefaultComponentManager>> newChildren = new ArrayList<>(this.children.size());
+        for (WeakReference<DefaultComponentManager> reference : this.children) {
+            DefaultComponentManager referent = reference.get();
+            if (referent != null && referent != child) {
+                newChildren.add(reference);
+            }
+        }
+        this.children = newChildren;
+    }
+
+    /**
+     * Called after each modification of the registry.
+     */
+    private void registryChanged() {
+        this.registryVersion.incrementAndGet();
+        if (this.parent != null) {
+            // Handles on an inherited component have to check if it's been overridden
+            this.inheritedGeneration.incrementAndGet();
+        }
+        for (WeakReference<DefaultComponentManager> reference : this.children) {
+            DefaultComponentManager child = reference.get();
+            if (child != null) {
+                child.parentChanged();
+            }
+        }
+    }
+
+    private void parentChanged() {
+        // Incremented first so that lookups in progress don't cache what they got from the ancestors
+        this.inheritedGeneration.incrementAndGet();
+        this.registryVersion.incrementAndGet();
+        this.inheritedEntries.clear();
+        this.inheritedRoleSnapshots.clear();
+        for (WeakReference<DefaultComponentManager> reference : this.children) {
+            DefaultComponentManager child = reference.get();
+            if (child != null) {
+                child.parentChanged();
+            }
+        }
+    }
+
+    @Override
+    public boolean hasComponent(Type role) {
+        return hasComponent(role, null);
+    }
+
+    @Override
+    public boolean hasComponent(Type role, String hint) {
+        if (getComponentEntry(role, hint) != null) {
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public <T> T getInstance(Type roleType) throws ComponentException {
+        return getInstance(roleType, null);
+    }
+
+    @Override
+    public <T> T getInstance(Type roleType, String roleHint) throws ComponentException {
+        FrozenRegistry<FrozenEntry> frozen = this.frozenRegistry.get();
+        if (frozen != null) {
+            FrozenEntry frozenEntry = frozen.get(TypeInterner.intern(roleType), roleHint);
+            if (frozenEntry != null) {
+                if (frozenEntry.instance == null) {
+                    return getInstance((ComponentEntry<T>) frozenEntry.entry);
+                }
+                ComponentMetrics metrics = frozenEntry.entry.metrics;
+                if (metrics != null) {
+                    metrics.recordLookup();
+                }
+                return (T) frozenEntry.instance;
+            }
+        }
+
+        T instance = null;
+        ComponentEntry<T> componentEntry = (ComponentEntry<T>) getComponentEntry(roleType, roleHint);
+        if (componentEntry != null) {
+            instance = getInstance(componentEntry);
+        }
+
+        return instance;
+    }
+
+    private <T> T getInstance(ComponentEntry<T> componentEntry) throws ComponentException {
+        return getInstance(componentEntry, this);
+    }
+
+    /**
+     * @param requestingManager the manager in which the lookup started, whose scope holds the scoped components
+     */
+    private <T> T getInstance(ComponentEntry<T> componentEntry, DefaultComponentManager requestingManager)
+            throws ComponentException {
+        if (componentEntry.manager != this) {
+            // Inherited components are created by their manager, with its dependencies
+            return componentEntry.manager.getInstance(componentEntry, requestingManager);
+        }
+
+        ComponentMetrics metrics = componentEntry.metrics;
+        if (metrics != null) {
+            metrics.recordLookup();
+        }
+
+        try {
+            return getComponentInstance(componentEntry, requestingManager);
+        } catch (ComponentException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ComponentException(String.format("Failed to lookup component [%s] identified by [%s] and [%s]",
+                    componentEntry.descriptor.getImplementation().getName(), componentEntry.key.getRoleType(),
+                    componentEntry.key.getRoleHint()), e);
+        }
+    }
+
+    @Override
+    public <T> ComponentHandle<T> getHandle(Type roleType, String roleHint) {
+        return new DefaultComponentHandle<>(new ComponentKey(roleType, roleHint));
+    }
+
+    /**
+     * Handle keeping a reference to the entry of the component. The entry is looked up again only once it's been
+     * removed from the registry.
+     */
+    private class DefaultComponentHandle<T> implements ComponentHandle<T> {
+        private final ComponentKey key;
+
+        private ComponentEntry<T> componentEntry;
+
+        /**
+         * The generation of the inherited components when the entry was looked up.
+         */
+        private int inheritedGeneration;
+
+        DefaultComponentHandle(ComponentKey key) {
+            this.key = key;
+            this.inheritedGeneration = DefaultComponentManager.this.inheritedGeneration.get();
+            this.componentEntry = (ComponentEntry<T>) getComponentEntry(key.getRoleType(), key.getRoleHint());
+        }
+
+        @Override
+        public T get() throws ComponentException {
+            ComponentEntry<T> entry = this.componentEntry;
+            if (entry != null && (entry.manager == DefaultComponentManager.this
+                    || this.inheritedGeneration == DefaultComponentManager.this.inheritedGeneration.get())) {
+                // A removed entry has no instance so this is enough for singletons
+                T instance = entry.instance;
+                if (instance != null) {
+                    ComponentMetrics metrics = entry.metrics;
+                    if (metrics != null) {
+                        metrics.recordLookup();
+                    }
+                    return instance;
+                }
+                if (!entry.removed) {
+                    return getInstance(entry);
+                }
+            }
+
+            this.inheritedGeneration = DefaultComponentManager.this.inheritedGeneration.get();
+            entry = (ComponentEntry<T>) getComponentEntry(this.key.getRoleType(), this.key.getRoleHint());
+            this.componentEntry = entry;
+
+            return entry != null ? getInstance(entry) : null;
+        }
+    }
+
+    @Override
+    public <T> T borrowInstance(Type roleType, String roleHint) throws ComponentException {
+        return getInstance(roleType, roleHint);
+    }
+
+    @Override
+    public void returnInstance(Type roleType, String roleHint, Object componentInstance) {
+        ComponentEntry<Object> componentEntry = (ComponentEntry<Object>) getComponentEntry(roleType, roleHint);
+        if (componentEntry != null
+                && componentEntry.descriptor.getInstantiationStrategy() == ComponentInstantiationStrategy.POOLED
+                && componentEntry.descriptor.getImplementation().isInstance(componentInstance)) {
+            getComponentPool(componentEntry).giveBack(componentInstance);
+        }
+    }
+
+    /**
+     * @param role the role identifying the component
+     * @param hint the hint identifying the component
+     * @return the statistics of the pool of the component, or null if the component is not pooled
+     */
+    public ComponentPoolStatistics getPoolStatistics(Type role, String hint) {
+        ComponentEntry<?> componentEntry = getComponentEntry(role, hint);
+        if (componentEntry == null
+                || componentEntry.descriptor.getInstantiationStrategy() != ComponentInstantiationStrategy.POOLED) {
+            return null;
+        }
+
+        return getComponentPool(componentEntry).getStatistics();
+    }
+
+    private <T> ComponentPool<T> getComponentPool(ComponentEntry<T> componentEntry) {
+        if (componentEntry.manager != this) {
+            return componentEntry.manager.getComponentPool(componentEntry);
+        }
+
+        ComponentPool<T> pool = componentEntry.pool;
+        if (pool == null) {
+            PoolConfiguration configuration =
+                    componentEntry.descriptor.getImplementation().getAnnotation(PoolConfiguration.class);
+            pool = new ComponentPool<>(() -> createInstance(componentEntry, this),
+                    configuration != null ? configuration.capacity() : ComponentPool.DEFAULT_CAPACITY,
+                    configuration != null && configuration.threadLocalCache());
+            if (!POOL_UPDATER.compareAndSet(componentEntry, null, pool)) {
+                pool = componentEntry.pool;
+            } else if (componentEntry.removed) {
+                // Don't keep idle instances in an entry which has been removed in the meantime
+                pool.close();
+            }
+        }
+        return pool;
+    }
+
+    private <T> T getComponentInstance(ComponentEntry<T> componentEntry, DefaultComponentManager requestingManager)
+            throws Exception {
+        T instance;
+        ComponentDescriptor<T> descriptor = componentEntry.descriptor;
+        if (descriptor.getInstantiationStrategy() == ComponentInstantiationStrategy.SINGLETON) {
+            instance = componentEntry.instance;
+            if (instance == null) {
+                instance = getSingletonInstance(componentEntry, requestingManager);
+            }
+        } else if (descriptor.getInstantiationStrategy() == ComponentInstantiationStrategy.POOLED) {
+            instance = getComponentPool(componentEntry).borrow();
+        } else if (descriptor.getInstantiationStrategy() == ComponentInstantiationStrategy.THREAD) {
+            instance = componentEntry.threadInstance.get();
+            if (instance == null) {
+                instance = createInstance(componentEntry, requestingManager);
+                componentEntry.threadInstance.set(instance);
+            }
+        } else if (descriptor.getInstantiationStrategy() == ComponentInstantiationStrategy.SCOPED) {
+            instance = getScopedInstance(componentEntry, requestingManager);
+        } else {
+            instance = createInstance(componentEntry, requestingManager);
+        }
+        return instance;
+    }
+
+    /**
+     * Get the instance of the current scope of the requesting manager, so that inherited scoped components live in
+     * the scope of the child manager they are looked up from. Nothing is locked, in the rare case where two threads
+     * sharing the scope create the instance at the same time the first one stored is kept and the other one disposed.
+     */
+    private <T> T getScopedInstance(ComponentEntry<T> componentEntry, DefaultComponentManager requestingManager)
+            throws Exception {
+        ComponentScope scope = requestingManager.getRequestScope();
+        if (scope == null) {
+            throw new ComponentException(String.format("No scope is open to create scoped component [%s]",
+                    componentEntry.key));
+        }
+
+        T instance = (T) scope.get(componentEntry);
+        if (instance == null) {
+            instance = (T) scope.putIfAbsent(componentEntry, createInstance(componentEntry, requestingManager));
+        }
+        return instance;
+    }
+
+    /**
+     * @return the current scope of the calling thread in this manager, or else in the closest ancestor which has one
+     */
+    private ComponentScope getRequestScope() {
+        for (DefaultComponentManager manager = this; manager != null; manager = manager.parent) {
+            ComponentScope scope = manager.currentScope.get();
+            if (scope != null) {
+                return scope;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Open a new scope and make it the current scope of the calling thread until it's closed. Scopes can be nested,
+     * the instances of the enclosing scope are not visible from the nested one.
+     *
+     * @return the new scope, to close with {@link #closeScope(ComponentScope)} or {@link ComponentScope#close()}
+     */
+    public ComponentScope openScope() {
+        ComponentScope scope = new ComponentScope(this, this.currentScope.get());
+        this.currentScope.set(scope);
+        return scope;
+    }
+
+    /**
+     * @return the current scope of the calling thread or null if no scope is open
+     */
+    public ComponentScope getCurrentScope() {
+        return this.currentScope.get();
+    }
+
+    /**
+     * Dispose all the instances created in the scope, in reverse creation order. If the scope is the current scope
+     * of the calling thread, the scope which was current before it was opened becomes current again.
+     *
+     * @param scope the scope to close
+     */
+    public void closeScope(ComponentScope scope) {
+        if (this.currentScope.get() == scope) {
+            ComponentScope previousScope = scope.getPreviousScope();
+            if (previousScope != null) {
+                this.currentScope.set(previousScope);
+            } else {
+                this.currentScope.remove();
+            }
+        }
+
+        scope.disposeInstances();
+    }
+
+    /**
+     * @return the tracer recording the creation of the components or null if tracing is disabled
+     */
+    public StartupTracer getStartupTracer() {
+        return this.startupTracer;
+    }
+
+    /**
+     * @param startupTracer the tracer recording the creation of the components, null to disable tracing
+     */
+    public void setStartupTracer(StartupTracer startupTracer) {
+        this.startupTracer = startupTracer;
+    }
+
+    /**
+     * @return true if the {@link ComponentMetrics} of the components are maintained
+     */
+    public boolean isMetricsEnabled() {
+        return this.metricsEnabled;
+    }
+
+    /**
+     * Start or stop maintaining the {@link ComponentMetrics} of the components. When disabled, the only overhead
+     * left is a null check per lookup and creation.
+     *
+     * @param enabled true to collect the metrics, false to stop and forget the collected ones
+     */
+    public void setMetricsEnabled(boolean enabled) {
+        this.metricsEnabled = enabled;
+        for (ComponentEntry<?> componentEntry : this.componentEntries.values()) {
+            if (!enabled) {
+                componentEntry.metrics = null;
+            } else if (componentEntry.metrics == null) {
+                componentEntry.metrics = new ComponentMetrics();
+            }
+        }
+    }
+
+    /**
+     * Forget the collected metrics.
+     */
+    public void resetMetrics() {
+        if (this.metricsEnabled) {
+            for (ComponentEntry<?> componentEntry : this.componentEntries.values()) {
+                componentEntry.metrics = new ComponentMetrics();
+            }
+        }
+    }
+
+    /**
+     * @return the metrics of all the registered components, empty when the metrics are disabled
+     */
+    public List<ComponentMetricsSnapshot> getMetrics() {
+        List<ComponentMetricsSnapshot> snapshots = new ArrayList<>();
+        for (ComponentEntry<?> componentEntry : this.componentEntries.values()) {
+            ComponentMetrics metrics = componentEntry.metrics;
+            if (metrics != null) {
+                snapshots.add(metrics.getSnapshot(componentEntry.key, componentEntry.descriptor.getImplementation()));
+            }
+        }
+        return snapshots;
+    }
+
+    /**
+     * @param role the role identifying the component
+     * @param hint the hint identifying the component
+     * @return the metrics of the component or null if it doesn't exist or the metrics are disabled
+     */
+    public ComponentMetricsSnapshot getMetrics(Type role, String hint) {
+        ComponentEntry<?> componentEntry = getComponentEntry(role, hint);
+        ComponentMetrics metrics = componentEntry != null ? componentEntry.metrics : null;
+        return metrics != null ? metrics.getSnapshot(componentEntry.key, componentEntry.descriptor.getImplementation())
+                : null;
+    }
+
+    /**
+     * Enable the metrics and expose them through the platform MBean server.
+     *
+     * @return the name of the registered {@link ComponentManagerMetricsMXBean}
+     * @throws ComponentException when failing to register the MBean
+     */
+    public synchronized ObjectName registerMetricsMBean() throws ComponentException {
+        if (this.metricsName == null) {
+            try {
+                ObjectName name = new ObjectName(String.format("component_module:type=%s,id=%x",
+                        getClass().getSimpleName(), System.identityHashCode(this)));
+                ManagementFactory.getPlatformMBeanServer().registerMBean(new MetricsMXBean(), name);
+                this.metricsName = name;
+            } catch (Exception e) {
+                throw new ComponentException("Failed to register the component metrics MBean", e);
+            }
+        }
+        setMetricsEnabled(true);
+
+        return this.metricsName;
+    }
+
+    /**
+     * Remove the metrics MBean from the platform MBean server, the metrics stay enabled.
+     */
+    public synchronized void unregisterMetricsMBean() {
+        if (this.metricsName != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(this.metricsName);
+            } catch (Exception e) {
+                logger.warn("Failed to unregister the component metrics MBean [{}]", this.metricsName, e);
+            }
+            this.metricsName = null;
+        }
+    }
+
+    private class MetricsMXBean implements ComponentManagerMetricsMXBean {
+        @Override
+        public boolean isEnabled() {
+            return isMetricsEnabled();
+        }
+
+        @Override
+        public void setEnabled(boolean enabled) {
+            setMetricsEnabled(enabled);
+        }
+
+        @Override
+        public ComponentMetricsSnapshot[] getComponentMetrics() {
+            List<ComponentMetricsSnapshot> snapshots = getMetrics();
+            return snapshots.toArray(new ComponentMetricsSnapshot[snapshots.size()]);
+        }
+
+        @Override
+        public void reset() {
+            resetMetrics();
+        }
+    }
+
+    /**
+     * Create the singleton instance or wait for the thread already creating it. No lock is held while the
+     * dependencies are resolved so threads creating unrelated components never block each other.
+     */
+    private <T> T getSingletonInstance(ComponentEntry<T> componentEntry, DefaultComponentManager requestingManager)
+            throws Exception {
+        SingletonCell cell = componentEntry.cell;
+        SingletonCreation<T> creation = null;
+        while (creation == null) {
+            SingletonCreation<T> pendingCreation = (SingletonCreation<T>) cell.creation.get();
+            if (pendingCreation != null) {
+                T instance = waitForSingleton(componentEntry, pendingCreation);
+                adoptSingleton(componentEntry, instance);
+                return instance;
+            }
+            if (cell.creation.compareAndSet(null, new SingletonCreation<>())) {
+                creation = (SingletonCreation<T>) cell.creation.get();
+            }
+        }
+
+        try {
+            // The previous creation may have completed before this one started, or for another role
+            T instance = (T) cell.instance;
+            if (instance == null) {
+                instance = createInstance(componentEntry, requestingManager);
+                cell.instance = instance;
+                this.instanceEntries.put(new InstanceKey(instance), componentEntry);
+            }
+            adoptSingleton(componentEntry, instance);
+            // Don't keep an instance which no registered entry shares anymore
+            if (componentEntry.removed && cell.entries.isEmpty()) {
+                releaseSingleton(cell, componentEntry);
+            }
+            creation.future.complete(instance);
+
+            return instance;
+        } catch (Throwable e) {
+            creation.future.completeExceptionally(e);
+
+            throw e;
+        } finally {
+            cell.creation.set(null);
+        }
+    }
+
+    private <T> void adoptSingleton(ComponentEntry<T> componentEntry, T instance) {
+        if (!componentEntry.removed) {
+            componentEntry.instance = instance;
+        }
+    }
+
+    /**
+     * Make a singleton entry share the singleton of the other entries with the same implementation and hint, or hold
+     * the instance passed at registration. To call only for an entry about to be published: the entries of a cell
+     * keep its singleton alive.
+     */
+    private <T> void joinSingletonCell(ComponentEntry<T> componentEntry) {
+        if (componentEntry.descriptor.getInstantiationStrategy() != ComponentInstantiationStrategy.SINGLETON) {
+            return;
+        }
+
+        T instance = componentEntry.instance;
+        if (instance != null) {
+            componentEntry.cell = new SingletonCell(null, instance);
+            componentEntry.cell.entries.add(componentEntry);
+        } else {
+            ComponentKey cellKey =
+                    new ComponentKey(componentEntry.descriptor.getImplementation(), componentEntry.key.getRoleHint());
+            componentEntry.cell = this.singletonCells.compute(cellKey, (key, cell) -> {
+                SingletonCell joinedCell = cell != null ? cell : new SingletonCell(key, null);
+                joinedCell.entries.add(componentEntry);
+                // Lookups through the new entry don't go through the cell once the singleton exists
+                componentEntry.instance = (T) joinedCell.instance;
+                return joinedCell;
+            });
+        }
+    }
+
+    /**
+     * Remove a retired entry from its singleton cell, releasing the singleton if no other entry shares it.
+     */
+    private void leaveSingletonCell(ComponentEntry<?> componentEntry) throws ComponentException {
+        SingletonCell cell = componentEntry.cell;
+        boolean empty;
+        if (cell.key != null) {
+            boolean[] emptied = new boolean[1];
+            this.singletonCells.computeIfPresent(cell.key, (key, currentCell) -> {
+                currentCell.entries.remove(componentEntry);
+                emptied[0] = currentCell.entries.isEmpty();
+                return emptied[0] ? null : currentCell;
+            });
+            empty = emptied[0];
+        } else {
+            cell.entries.remove(componentEntry);
+            empty = true;
+        }
+
+        if (empty) {
+            releaseSingleton(cell, componentEntry);
+        } else {
+            Object instance = componentEntry.instance;
+            componentEntry.instance = null;
+            unfreezeComponent(componentEntry.key);
+            // Keep the shared singleton releasable through the entries still sharing it
+            Iterator<ComponentEntry<?>> siblings = cell.entries.iterator();
+            if (instance != null && siblings.hasNext()) {
+                this.instanceEntries.replace(new InstanceKey(instance), componentEntry, siblings.next());
+            }
+        }
+    }
+
+    private <T> T waitForSingleton(ComponentEntry<T> componentEntry, SingletonCreation<T> creation)
+            throws ComponentException {
+        Thread currentThread = Thread.currentThread();
+        if (creation.thread == currentThread) {
+            throw createCycleException(componentEntry);
+        }
+
+        ComponentMetrics metrics = componentEntry.metrics;
+        long start = metrics != null ? System.nanoTime() : 0;
+
+        this.waitingThreads.put(currentThread, componentEntry);
+        try {
+            while (true) {
+                checkWaitCycle(componentEntry, creation);
+                try {
+                    return creation.future.get(CYCLE_CHECK_INTERVAL, TimeUnit.MILLISECONDS);
+                } catch (TimeoutException e) {
+                    // Check again for a cycle, the other threads may have started waiting since
+                }
+            }
+        } catch (ExecutionException e) {
+            throw new ComponentException(String.format("Failed to create component [%s]", componentEntry.key),
+                    e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ComponentException(String.format("Interrupted while waiting for component [%s]",
+                    componentEntry.key), e);
+        } finally {
+            this.waitingThreads.remove(currentThread);
+
+            if (metrics != null) {
+                metrics.recordSingletonWait(System.nanoTime() - start);
+            }
+        }
+    }
+
+    /**
+     * Follow the chain of threads waiting for each other, starting with the thread creating the passed singleton.
+     * Coming back to the current thread means that none of them can ever complete.
+     */
+    private void checkWaitCycle(ComponentEntry<?> componentEntry, SingletonCreation<?> creation)
+            throws ComponentException {
+        List<ComponentKey> chain = new ArrayList<>();
+        chain.add(componentEntry.key);
+        Thread thread = creation.thread;
+        for (int i = 0; i <= this.waitingThreads.size(); ++i) {
+            if (thread == Thread.currentThread()) {
+                throw new ComponentException(String.format(
+                        "Dependency cycle between components created by different threads: %s", chain));
+            }
+            ComponentEntry<?> awaitedEntry = this.waitingThreads.get(thread);
+            SingletonCreation<?> awaitedCreation = awaitedEntry != null ? awaitedEntry.cell.creation.get() : null;
+            if (awaitedCreation == null) {
+                return;
+            }
+            chain.add(awaitedEntry.key);
+            thread = awaitedCreation.thread;
+        }
+    }
+
+    private ComponentException createCycleException(ComponentEntry<?> componentEntry) {
+        List<ComponentEntry<?>> stack = this.creationStack.get();
+        StringBuilder cycle = new StringBuilder();
+        for (int i = stack.indexOf(componentEntry); i >= 0 && i < stack.size(); ++i) {
+            cycle.append(stack.get(i).key).append(" -> ");
+        }
+        cycle.append(componentEntry.key);
+
+        return new ComponentException(String.format("Dependency cycle between components: %s", cycle));
+    }
+
+    /**
+     * Create component instance from a ComponentEntry
+     *
+     * @param componentEntry
+     * @param requestingManager the manager in which the lookup started
+     * @return instance
+     * @throws Exception
+     */
+    @SuppressWarnings("try")
+    private <T> T createInstance(ComponentEntry<T> componentEntry, DefaultComponentManager requestingManager)
+            throws Exception {
+        List<ComponentEntry<?>> stack = this.creationStack.get();
+        if (stack.contains(componentEntry)) {
+            throw createCycleException(componentEntry);
+        }
+
+        ComponentMetrics metrics = componentEntry.metrics;
+        long start = metrics != null ? System.nanoTime() : 0;
+
+        stack.add(componentEntry);
+        try (StartupTracer.Span span = StartupTracer.begin(this.startupTracer, "create", componentEntry.key)) {
+            T instance = injectInstance(componentEntry, requestingManager);
+
+            if (metrics != null) {
+                metrics.recordCreation(System.nanoTime() - start);
+            }
+
+            return instance;
+        } finally {
+            stack.remove(stack.size() - 1);
+        }
+    }
+
+    @SuppressWarnings("try")
+    private <T> T injectInstance(ComponentEntry<T> componentEntry, DefaultComponentManager requestingManager)
+            throws Exception {
+        ComponentDescriptor<T> descriptor = componentEntry.descriptor;
+        InjectionPlan<T> plan = componentEntry.getInjectionPlan();
+        StartupTracer tracer = this.startupTracer;
+
+        ComponentDependency<?>[] dependencies = plan.getDependencies();
+        DependencyEdge[] edges = getDependencyEdges(componentEntry, dependencies.length);
+        Object[] values = new Object[dependencies.length];
+
+        // Create instance from class implementation, with its constructor dependencies
+        int constructorParameterCount = plan.getConstructorParameterCount();
+        for (int i = 0; i < constructorParameterCount; ++i) {
+            values[i] = resolveDependency(tracer, descriptor, null, dependencies[i], edges, i, requestingManager);
+        }
+        T instance = plan.newInstance(values);
+
+        // Set each dependency field value and call the injected methods through the cached injectors
+        for (int i = constructorParameterCount; i < dependencies.length; ++i) {
+            values[i] = resolveDependency(tracer, descriptor, instance, dependencies[i], edges, i, requestingManager);
+        }
+        plan.inject(instance, values);
+
+        // Initialize the component now that all its dependencies are injected
+        if (instance instanceof Initializable) {
+            try (StartupTracer.Span span = StartupTracer.begin(tracer, "initialize", componentEntry.key)) {
+                ((Initializable) instance).initialize();
+            }
+        }
+
+        return instance;
+    }
+
+    @SuppressWarnings("try")
+    private Object resolveDependency(StartupTracer tracer, ComponentDescriptor<?> descriptor, Object parentInstance,
+            ComponentDependency<?> dependency, DependencyEdge[] edges, int index,
+            DefaultComponentManager requestingManager) throws ComponentException {
+        try (StartupTracer.Span span = StartupTracer.begin(tracer, "resolve", dependency)) {
+            if (this.dependencyInstanceOverridden) {
+                return getDependencyInstance(descriptor, parentInstance, dependency);
+            }
+
+            DependencyEdge edge = getDependencyEdge(dependency, edges, index);
+            if (edge.kind == DependencyKind.LAZY) {
+                return new ComponentLazy<>(getHandle(edge.providedType, dependency.getRoleHint()));
+            } else if (edge.target != null) {
+                return getInstance(edge.target, requestingManager);
+            } else if (edge.kind == DependencyKind.PROVIDER) {
+                return new ComponentProvider<>(getHandle(edge.providedType, dependency.getRoleHint()));
+            }
+            return edge.view;
+        }
+    }
+
+    private DependencyEdge[] getDependencyEdges(ComponentEntry<?> componentEntry, int dependencyCount) {
+        DependencyEdge[] edges = componentEntry.dependencyEdges;
+        if (edges == null) {
+            // Creating the array twice is harmless, the edges are bound again
+            edges = new DependencyEdge[dependencyCount];
+            componentEntry.dependencyEdges = edges;
+        }
+        return edges;
+    }
+
+    /**
+     * @return the edge of the dependency, bound again if the injected component has been removed or replaced, or
+     *         may have been registered
+     */
+    private DependencyEdge getDependencyEdge(ComponentDependency<?> dependency, DependencyEdge[] edges, int index) {
+        DependencyEdge edge = edges[index];
+        if (edge == null || isStale(edge)) {
+            edge = bindDependency(dependency);
+            // Racing threads bind the same edge
+            edges[index] = edge;
+        }
+        return edge;
+    }
+
+    private boolean isStale(DependencyEdge edge) {
+        ComponentEntry<?> target = edge.target;
+        if (target == null) {
+            return edge.kind != DependencyKind.LAZY && edge.generation != this.registryVersion.get();
+        }
+        return target.removed || (target.manager != this && edge.generation != this.inheritedGeneration.get());
+    }
+
+    private DependencyEdge bindDependency(ComponentDependency<?> dependency) {
+        DependencyKind kind = getDependencyKind(dependency.getRoleType());
+        Type providedType = kind != DependencyKind.COMPONENT
+                ? ReflectionUtils.getLastTypeGenericArgument(dependency.getRoleType()) : null;
+        if (kind == DependencyKind.LAZY) {
+            return new DependencyEdge(null, kind, providedType, null, 0);
+        }
+
+        // Read before the lookup so that a concurrent registration makes the edge stale
+        int version = this.registryVersion.get();
+        int generation = this.inheritedGeneration.get();
+        // A Provider or collection explicitly registered as a component is used as is
+        ComponentEntry<?> target = getComponentEntry(dependency.getRoleType(), dependency.getRoleHint());
+
+        Object view = null;
+        if (target == null) {
+            if (kind == DependencyKind.LIST) {
+                view = new RoleListView(providedType);
+            } else if (kind == DependencyKind.SET) {
+                view = new RoleSetView(providedType);
+            } else if (kind == DependencyKind.MAP) {
+                view = new RoleMapView(providedType);
+            }
+        }
+
+        return new DependencyEdge(target, kind, providedType, view, target == null ? version : generation);
+    }
+
+    /**
+     * @return how a dependency of the passed type is resolved
+     */
+    private static DependencyKind getDependencyKind(Type roleType) {
+        // Raw types are looked up as components
+        if (!(roleType instanceof ParameterizedType)) {
+            return DependencyKind.COMPONENT;
+        }
+
+        Class<?> roleClass = ReflectionUtils.getTypeClass(roleType);
+        if (roleClass == Provider.class) {
+            return DependencyKind.PROVIDER;
+        } else if (roleClass == Lazy.class) {
+            return DependencyKind.LAZY;
+        } else if (roleClass == List.class) {
+            return DependencyKind.LIST;
+        } else if (roleClass == Set.class) {
+            return DependencyKind.SET;
+        } else if (roleClass == Map.class
+                && ((ParameterizedType) roleType).getActualTypeArguments()[0] == String.class) {
+            return DependencyKind.MAP;
+        }
+        return DependencyKind.COMPONENT;
+    }
+
+    /**
+     * @return the components of the role, or an empty array if there are none
+     */
+    private ComponentEntry<?>[] getRoleSnapshotEntries(Type role) {
+        RoleSnapshot snapshot = getRoleSnapshot(role);
+        return snapshot != null ? snapshot.entries : NO_ENTRIES;
+    }
+
+    private Object getViewInstance(ComponentEntry<?> componentEntry) {
+        try {
+            return getInstance(componentEntry);
+        } catch (ComponentException e) {
+            throw new RuntimeException("Failed to get a component of the injected collection", e);
+        }
+    }
+
+    /**
+     * The instances seen by a view for one snapshot of the components of a role. The components creating an instance
+     * on each lookup are looked up once per snapshot, so that the view keeps returning the same elements until the
+     * role is modified. The other components are looked up on each access, they return the same instance anyway in
+     * the thread or scope of the caller.
+     */
+    private final class RoleGeneration {
+        private final ComponentEntry<?>[] entries;
+
+        private final AtomicReferenceArray<Object> instances;
+
+        RoleGeneration(ComponentEntry<?>[] entries) {
+            this.entries = entries;
+            this.instances = new AtomicReferenceArray<>(entries.length);
+        }
+
+        int size() {
+            return this.entries.length;
+        }
+
+        Object get(int index) {
+            ComponentEntry<?> componentEntry = this.entries[index];
+            ComponentInstantiationStrategy strategy = componentEntry.descriptor.getInstantiationStrategy();
+            if (strategy != ComponentInstantiationStrategy.PER_LOOKUP
+                    && strategy != ComponentInstantiationStrategy.POOLED) {
+                return getViewInstance(componentEntry);
+            }
+
+            Object instance = this.instances.get(index);
+            if (instance == null) {
+                instance = getViewInstance(componentEntry);
+                // Another thread may have looked it up at the same time
+                if (!this.instances.compareAndSet(index, null, instance)) {
+                    instance = this.instances.get(index);
+                }
+            }
+            return instance;
+        }
+
+        int indexOf(ComponentEntry<?> componentEntry) {
+            for (int i = 0; i < this.entries.length; ++i) {
+                if (this.entries[i] == componentEntry) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * The current {@link RoleGeneration} of a view, replaced when the components of the role change.
+     */
+    private final class RoleInstances {
+        private final Type role;
+
+        private volatile RoleGeneration generation = new RoleGeneration(NO_ENTRIES);
+
+        RoleInstances(Type role) {
+            this.role = role;
+        }
 
+        RoleGeneration get() {
+            ComponentEntry<?>[] entries = getRoleSnapshotEntries(this.role);
+            RoleGeneration currentGeneration = this.generation;
+            if (currentGeneration.entries != entries) {
+                currentGeneration = new RoleGeneration(entries);
+                this.generation = currentGeneration;
+            }
+            return currentGeneration;
+        }
     }
 
-    private static class ComponentEntry<R> {
-        // Descriptor of the component.
-        public final ComponentDescriptor<R> descriptor;
-        /**
-         * Cached instance of the component. Lazily initialized when needed.
-         * Volatile to ensure it's really shared and sync between all threads.
-         */
-        public volatile R instance;
+    /**
+     * Iterator on the instances of a snapshot of the components of a role.
+     */
+    private static class RoleIterator implements Iterator<Object> {
+        private final RoleGeneration generation;
 
-        public ComponentEntry(ComponentDescriptor<R> descriptor, R instance) {
-            this.descriptor = descriptor;
-            this.instance = instance;
+        private int index;
+
+        RoleIterator(RoleGeneration generation) {
+            this.generation = generation;
         }
 
+        @Override
+        public boolean hasNext() {
+            return this.index < this.generation.size();
+        }
 
+        @Override
+        public Object next() {
+            if (this.index >= this.generation.size()) {
+                throw new NoSuchElementException();
+            }
+            return this.generation.get(this.index++);
+        }
     }
 
-    private Map<Type, Map<String, ComponentEntry<?>>> componentEntries = new ConcurrentHashMap<>();
+    /**
+     * Read-only list of the components implementing a role, injected in {@code List<T>} dependencies. It reflects
+     * the registrations and unregistrations, and the components are looked up when accessed. See
+     * {@link RoleGeneration} for the components creating a new instance on each lookup.
+     */
+    private class RoleListView extends AbstractList<Object> implements RandomAccess {
+        private final RoleInstances instances;
 
-    private ComponentEntry<?> getComponentEntry(Type role, String hint) {
-        Map<String, ComponentEntry<?>> entries = this.componentEntries.get(role);
-        if (entries != null) {
-            return entries.get(hint != null ? hint : "default");
+        RoleListView(Type role) {
+            this.instances = new RoleInstances(role);
         }
 
-        return null;
-    }
+        @Override
+        public Object get(int index) {
+            RoleGeneration generation = this.instances.get();
+            if (index < 0 || index >= generation.size()) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + generation.size());
+            }
+            return generation.get(index);
+        }
 
-    @Override
-    public boolean hasComponent(Type role) {
-        return hasComponent(role, null);
-    }
+        @Override
+        public int size() {
+            return this.instances.get().size();
+        }
 
-    @Override
-    public boolean hasComponent(Type role, String hint) {
-        if (getComponentEntry(role, hint) != null) {
-            return true;
+        @Override
+        public Iterator<Object> iterator() {
+            // Iterate on a consistent snapshot
+            return new RoleIterator(this.instances.get());
         }
-        return false;
     }
 
-    @Override
-    public <T> T getInstance(Type roleType) throws ComponentException {
-        return getInstance(roleType, null);
+    /**
+     * Read-only set of the components implementing a role, injected in {@code Set<T>} dependencies. See
+     * {@link RoleListView}.
+     */
+    private class RoleSetView extends AbstractSet<Object> {
+        private final RoleInstances instances;
+
+        RoleSetView(Type role) {
+            this.instances = new RoleInstances(role);
+        }
+
+        @Override
+        public Iterator<Object> iterator() {
+            return new RoleIterator(this.instances.get());
+        }
+
+        @Override
+        public int size() {
+            return this.instances.get().size();
+        }
     }
 
-    @Override
-    public <T> T getInstance(Type roleType, String roleHint) throws ComponentException {
-        T instance;
-        ComponentEntry<T> componentEntry = (ComponentEntry<T>) getComponentEntry(roleType, roleHint);
-        if (componentEntry != null) {
-            try {
-                instance = getComponentInstance(componentEntry);
-            } catch (Exception e) {
-                e.printStackTrace();
+    /**
+     * Read-only map of the components implementing a role by hint, injected in {@code Map<String, T>}
+     * dependencies. See {@link RoleListView}.
+     */
+    private class RoleMapView extends AbstractMap<String, Object> {
+        private final Type role;
+
+        private final RoleInstances instances;
+
+        private final Set<Map.Entry<String, Object>> entrySet = new AbstractSet<Map.Entry<String, Object>>() {
+            @Override
+            public Iterator<Map.Entry<String, Object>> iterator() {
+                RoleGeneration generation = RoleMapView.this.instances.get();
+                return new Iterator<Map.Entry<String, Object>>() {
+                    private int index;
+
+                    @Override
+                    public boolean hasNext() {
+                        return this.index < generation.size();
+                    }
+
+                    @Override
+                    public Map.Entry<String, Object> next() {
+                        if (this.index >= generation.size()) {
+                            throw new NoSuchElementException();
+                        }
+                        int current = this.index++;
+                        return new AbstractMap.SimpleImmutableEntry<>(
+                                generation.entries[current].key.getRoleHint(), generation.get(current));
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return RoleMapView.this.instances.get().size();
             }
+        };
+
+        RoleMapView(Type role) {
+            this.role = role;
+            this.instances = new RoleInstances(role);
         }
 
+        @Override
+        public Set<Map.Entry<String, Object>> entrySet() {
+            return this.entrySet;
+        }
 
-        return null;
+        @Override
+        public Object get(Object key) {
+            ComponentEntry<?> componentEntry = getRoleEntry(key);
+            if (componentEntry == null) {
+                return null;
+            }
+            RoleGeneration generation = this.instances.get();
+            int index = generation.indexOf(componentEntry);
+            return index >= 0 ? generation.get(index) : getViewInstance(componentEntry);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return getRoleEntry(key) != null;
+        }
+
+        private ComponentEntry<?> getRoleEntry(Object key) {
+            return key instanceof String ? getComponentEntry(this.role, (String) key) : null;
+        }
     }
 
-    private <T> T getComponentInstance(ComponentEntry<T> componentEntry) throws Exception {
-        T instance;
-        ComponentDescriptor<T> descriptor = componentEntry.descriptor;
-        if (descriptor.getInstantiationStrategy() == ComponentInstantiationStrategy.SINGLETON) {
-            if (componentEntry.instance != null) {
-                // If the instance exists return it
-                instance = componentEntry.instance;
-            } else {
-                synchronized (componentEntry) {
-                    // Re-check in case
-                    if (componentEntry.instance != null) {
-                        instance = componentEntry.instance;
-                    } else {
-                        componentEntry.instance = createInstance(descriptor);
-                        instance = componentEntry.instance;
-                    }
-                }
+    private static boolean isDependencyInstanceOverridden(Class<?> managerClass) {
+        for (Class<?> current = managerClass; current != DefaultComponentManager.class;
+                current = current.getSuperclass()) {
+            try {
+                current.getDeclaredMethod("getDependencyInstance", ComponentDescriptor.class, Object.class,
+                        ComponentDependency.class);
+                return true;
+            } catch (NoSuchMethodException e) {
+                // Look in the superclass
             }
-        } else {
-            instance = createInstance(descriptor);
         }
-        return instance;
+        return false;
     }
 
     /**
-     * Create component instance from a ComponentDescriptor
-     *
-     * @param descriptor
-     * @return instance
-     * @throws Exception
+     * @return the dependencies of the components registered in this manager which cannot be resolved, Provider, Lazy
+     *         and collection dependencies excepted, by component
      */
-    private <T> T createInstance(ComponentDescriptor<T> descriptor) throws Exception {
-
-        // Create instance from class implementation
-        T instance = descriptor.getImplementation().newInstance();
+    public Map<ComponentKey, List<ComponentDependency<?>>> getMissingDependencies() {
+        return getMissingDependencies(this.componentEntries.values());
+    }
 
-        // Set each dependency field value
-        for (ComponentDependency<?> dependency : descriptor.getComponentDependencies()) {
-            // Handle different field types
-            Object fieldValue = getDependencyInstance(descriptor, instance, dependency);
+    private Map<ComponentKey, List<ComponentDependency<?>>> getMissingDependencies(
+            Collection<ComponentEntry<?>> componentEntries) {
+        Map<ComponentKey, List<ComponentDependency<?>>> missingDependencies = new LinkedHashMap<>();
+        for (ComponentEntry<?> componentEntry : componentEntries) {
+            List<ComponentDependency<?>> componentMissingDependencies = getMissingDependencies(componentEntry);
+            if (!componentMissingDependencies.isEmpty()) {
+                missingDependencies.put(componentEntry.key, componentMissingDependencies);
+            }
+        }
+        return missingDependencies;
+    }
 
-            // Set the field by introspection
-            if (fieldValue != null) {
-                ReflectionUtils.setFieldValue(instance, dependency.getName(), fieldValue);
+    private List<ComponentDependency<?>> getMissingDependencies(ComponentEntry<?> componentEntry) {
+        List<ComponentDependency<?>> missingDependencies = Collections.emptyList();
+        for (ComponentDependency<?> dependency : componentEntry.descriptor.getComponentDependencies()) {
+            if (getDependencyKind(dependency.getRoleType()) == DependencyKind.COMPONENT
+                    && getComponentEntry(dependency.getRoleType(), dependency.getRoleHint()) == null) {
+                if (missingDependencies.isEmpty()) {
+                    missingDependencies = new ArrayList<>();
+                }
+                missingDependencies.add(dependency);
             }
         }
+        return missingDependencies;
+    }
 
-        return instance;
+    /**
+     * Log the missing dependencies of the passed components.
+     *
+     * @return the missing dependencies, by component
+     */
+    private Map<ComponentKey, List<ComponentDependency<?>>> reportMissingDependencies(
+            Collection<ComponentEntry<?>> componentEntries) {
+        Map<ComponentKey, List<ComponentDependency<?>>> missingDependencies = getMissingDependencies(componentEntries);
+        for (Map.Entry<ComponentKey, List<ComponentDependency<?>>> entry : missingDependencies.entrySet()) {
+            logger.warn("Component [{}] has missing dependencies, they will be injected as null: {}", entry.getKey(),
+                    entry.getValue());
+        }
+        return missingDependencies;
     }
 
     protected Object getDependencyInstance(ComponentDescriptor<?> descriptor, Object parentInstance,
@@ -142,66 +1733,229 @@ public class DefaultComponentManager implements ComponentManager {
         Object fieldValue;
 
         Class<?> dependencyRoleClass = ReflectionUtils.getTypeClass(dependency.getRoleType());
-        fieldValue = getInstance(dependency.getRoleType(), dependency.getRoleHint());
-        return fieldValue;
-    }
-
-    private void removeComponent(Type role, String hint) throws ComponentException {
-        Map<String, ComponentEntry<?>> entries = this.componentEntries.get(role);
-        if (entries != null) {
-            ComponentEntry<?> componentEntry = entries.remove(hint != null ? hint : "default");
+        Type providedType = ReflectionUtils.getLastTypeGenericArgument(dependency.getRoleType());
 
-            if (componentEntry != null) {
-                ComponentDescriptor<?> oldDescriptor = componentEntry.descriptor;
-
-                // We don't want the component manager to dispose itself
-                if (componentEntry.instance != this) {
-                    // clean any resource associated to the component instance and descriptor
-                    releaseComponentEntry(componentEntry);
+        // Provider and Lazy dependencies resolve the component on first use only. A Provider explicitly registered
+        // as a component is used as is.
+        if (dependencyRoleClass == Provider.class && providedType != null
+                && !hasComponent(dependency.getRoleType(), dependency.getRoleHint())) {
+            fieldValue = new ComponentProvider<>(getHandle(providedType, dependency.getRoleHint()));
+        } else if (dependencyRoleClass == Lazy.class && providedType != null) {
+            fieldValue = new ComponentLazy<>(getHandle(providedType, dependency.getRoleHint()));
+        } else {
+            fieldValue = getInstance(dependency.getRoleType(), dependency.getRoleHint());
+            if (fieldValue == null && providedType != null) {
+                // Collections of all the components of a role
+                DependencyKind kind = getDependencyKind(dependency.getRoleType());
+                if (kind == DependencyKind.LIST) {
+                    fieldValue = new RoleListView(providedType);
+                } else if (kind == DependencyKind.SET) {
+                    fieldValue = new RoleSetView(providedType);
+                } else if (kind == DependencyKind.MAP) {
+                    fieldValue = new RoleMapView(providedType);
                 }
             }
         }
 
+        return fieldValue;
+    }
+
+    /**
+     * @return the removed entry, or null if no component was registered for the passed role and hint
+     */
+    private ComponentEntry<?> removeComponent(Type role, String hint) {
+        ComponentEntry<?>[] removedEntry = new ComponentEntry<?>[1];
+        this.componentEntries.computeIfPresent(new ComponentKey(role, hint), (key, componentEntry) -> {
+            removedEntry[0] = componentEntry;
+            if (ComponentKey.isDefaultHint(hint)) {
+                this.defaultComponentEntries.remove(key.getRoleType(), componentEntry);
+            }
+            RoleEntries entries = this.roleEntries.get(key.getRoleType());
+            if (entries != null) {
+                entries.remove(componentEntry.key.getRoleHint(), componentEntry);
+            }
+            return null;
+        });
+
+        return removedEntry[0];
+    }
+
+    /**
+     * Mark an entry which is not part of the registry anymore as removed and clean any resource associated to the
+     * component instance and descriptor.
+     */
+    private void retireComponentEntry(ComponentEntry<?> componentEntry) throws ComponentException {
+        componentEntry.removed = true;
+        releaseComponentEntry(componentEntry);
     }
 
     @Override
     public <T> List<T> getInstanceList(Type role) throws ComponentException {
-        return null;
+        RoleSnapshot snapshot = getRoleSnapshot(role);
+        if (snapshot == null) {
+            return Collections.emptyList();
+        }
+
+        ComponentEntry<?>[] snapshotEntries = snapshot.entries;
+        Object[] instances = new Object[snapshotEntries.length];
+        for (int i = 0; i < snapshotEntries.length; ++i) {
+            instances[i] = getInstance(snapshotEntries[i]);
+        }
+
+        return (List<T>) Collections.unmodifiableList(Arrays.asList(instances));
     }
 
     @Override
     public void releaseInstance(Object componentInstance) throws ComponentException {
         // First find the descriptor matching the passed component
-        ComponentEntry<?> componentEntry = null;
-        for (Map<String, ComponentEntry<?>> entries : this.componentEntries.values()) {
-            for (ComponentEntry<?> entry : entries.values()) {
-                if (entry.instance == componentInstance) {
-                    componentEntry = entry;
-
-                    break;
-                }
-            }
-        }
+        ComponentEntry<?> componentEntry = this.instanceEntries.get(new InstanceKey(componentInstance));
 
-        if (componentEntry != null) {
+        if (componentEntry != null && componentEntry.instance == componentInstance) {
             // Release the entry
             releaseInstance(componentEntry);
         }
     }
 
     private void releaseInstance(ComponentEntry<?> componentEntry) throws ComponentException {
+        if (componentEntry.cell != null) {
+            releaseSingleton(componentEntry.cell, componentEntry);
+        }
+    }
 
-        synchronized (componentEntry) {
-            Object instance = componentEntry.instance;
+    /**
+     * Release the singleton of the cell for all the entries sharing it.
+     *
+     * @param componentEntry an entry which used to share the singleton, already removed from the cell if retired
+     */
+    private void releaseSingleton(SingletonCell cell, ComponentEntry<?> componentEntry) throws ComponentException {
+        // We don't want the component manager to release itself, it must stay the instance of its own entry
+        if (cell.instance == this) {
+            return;
+        }
 
-            // TODO: component clean up
-            componentEntry.instance = null;
+        // Only one thread gets the instance, so that it's disposed once
+        Object instance = CELL_INSTANCE_UPDATER.getAndSet(cell, null);
+
+        if (instance != null) {
+            List<ComponentEntry<?>> entries = new ArrayList<>(cell.entries);
+            entries.add(componentEntry);
+            for (ComponentEntry<?> entry : entries) {
+                INSTANCE_UPDATER.compareAndSet(entry, instance, null);
+                // Stop handing out the instance baked in the frozen registry
+                unfreezeComponent(entry.key);
+            }
+
+            this.instanceEntries.remove(new InstanceKey(instance));
+
+            if (instance instanceof Disposable) {
+                ((Disposable) instance).dispose();
+            }
+        }
+    }
+
+    /**
+     * Release all the singleton instances, disposing each component only once all the components depending on it
+     * have been disposed. Components which don't depend on each other are disposed in parallel.
+     * The components stay registered.
+     *
+     * @param timeout the maximum time to wait for the disposal of each component, after which it's left running in
+     *            the background and the shutdown goes on
+     * @param unit the unit of the timeout
+     */
+    public void disposeComponents(long timeout, TimeUnit unit) {
+        long start = System.nanoTime();
+
+        // The singletons baked in the frozen registry are about to be disposed
+        this.frozenRegistry.set(null);
+
+        // A shared singleton is disposed once, after the dependents of all its roles
+        Map<SingletonCell, ComponentKey> cellKeys = new HashMap<>();
+        Map<ComponentKey, ComponentKey> nodeKeys = new HashMap<>();
+        for (ComponentEntry<?> componentEntry : this.componentEntries.values()) {
+            if (componentEntry.cell != null) {
+                ComponentKey nodeKey = cellKeys.computeIfAbsent(componentEntry.cell, cell -> componentEntry.key);
+                nodeKeys.put(componentEntry.key, nodeKey);
+            }
+        }
+        ComponentGraph graph = new ComponentGraph(getComponentDescriptors(), nodeKeys);
+        List<List<ComponentKey>> levels = graph.getLevels();
+
+        ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "Component disposal");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            // The components depending on a cycle can be dependents of the other components but never the other
+            // way around, so they go first. The order doesn't matter between components of a same cycle.
+            for (ComponentKey key : graph.getCyclicKeys()) {
+                disposeComponent(key, executor, timeout, unit);
+            }
+
+            // Dependents first
+            Map<ComponentKey, CompletableFuture<Void>> futures = new HashMap<>();
+            for (int i = levels.size() - 1; i >= 0; --i) {
+                for (ComponentKey key : levels.get(i)) {
+                    List<CompletableFuture<Void>> dependentFutures = new ArrayList<>();
+                    for (ComponentKey dependent : graph.getDependents(key)) {
+                        // The cyclic dependents are already disposed
+                        CompletableFuture<Void> dependentFuture = futures.get(dependent);
+                        if (dependentFuture != null) {
+                            dependentFutures.add(dependentFuture);
+                        }
+                    }
+                    futures.put(key,
+                            CompletableFuture.allOf(dependentFutures.toArray(new CompletableFuture<?>[0]))
+                                    .thenRunAsync(() -> disposeComponent(key, executor, timeout, unit), executor));
+                }
+            }
+            CompletableFuture.allOf(futures.values().toArray(new CompletableFuture<?>[futures.size()])).join();
+        } finally {
+            executor.shutdown();
+        }
+
+        logger.debug("Disposed components in {} ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private void disposeComponent(ComponentKey key, ExecutorService executor, long timeout, TimeUnit unit) {
+        ComponentEntry<?> componentEntry = getComponentEntry(key.getRoleType(), key.getRoleHint());
+        // Inherited components belong to the ancestors
+        if (componentEntry == null || componentEntry.manager != this || (componentEntry.instance == null
+                && (componentEntry.cell == null || componentEntry.cell.instance == null)
+                && componentEntry.pool == null)) {
+            return;
+        }
+
+        Future<?> disposal = executor.submit(() -> {
+            releaseInstance(componentEntry);
+            ComponentPool<?> pool = componentEntry.pool;
+            if (pool != null) {
+                pool.clear();
+            }
+            return null;
+        });
+        try {
+            disposal.get(timeout, unit);
+        } catch (TimeoutException e) {
+            logger.warn("Component [{}] took more than {} {} to dispose, moving on", key, timeout, unit);
+        } catch (ExecutionException e) {
+            logger.error("Failed to dispose component [{}]", key, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
     }
 
     private void releaseComponentEntry(ComponentEntry<?> componentEntry) throws ComponentException {
-        // clean existing instance
-        releaseInstance(componentEntry);
+        // clean existing instance, unless other roles share it
+        if (componentEntry.cell != null) {
+            leaveSingletonCell(componentEntry);
+        }
+
+        // dispose the idle pooled instances, the borrowed ones are not tracked
+        ComponentPool<?> pool = componentEntry.pool;
+        if (pool != null) {
+            pool.close();
+        }
     }
 
     @Override
@@ -211,41 +1965,190 @@ public class DefaultComponentManager implements ComponentManager {
 
     @Override
     public <T> void registerComponent(ComponentDescriptor<T> componentDescriptor, T componentInstance) {
-        // Remove any existing component associated to the provided roleHint
-        try {
-            removeComponent(componentDescriptor.getRoleType(), componentDescriptor.getRoleHint());
-        } catch (Exception e) {
-            this.logger.warn("Some exception raised during removing component.", e);
-        }
+        checkFrozen(componentDescriptor.getRoleType(), componentDescriptor.getRoleHint());
 
         logger.debug("[DefautComponentManager] registerComponent roletype=" + componentDescriptor.getRoleType()
                 + " rolehint=" + componentDescriptor.getRoleHint());
-        // Register new component
-        addComponent(new DefaultComponentDescriptor<T>(componentDescriptor), componentInstance);
+
+        // Replace any existing component associated to the provided roleHint, readers see either one or the other
+        ComponentEntry<T> componentEntry =
+                createComponentEntry(new DefaultComponentDescriptor<T>(componentDescriptor), componentInstance);
+        joinSingletonCell(componentEntry);
+
+        ComponentEntry<?> previousEntry;
+        this.registrationLock.readLock().lock();
+        try {
+            previousEntry = addComponent(componentEntry, true);
+        } finally {
+            this.registrationLock.readLock().unlock();
+        }
+        registryChanged();
+
+        retirePreviousEntry(previousEntry);
+    }
+
+    /**
+     * Register several components at once. All the entries are created before any of them is published, and then
+     * published atomically: a lookup sees either none or all of them, and the components of each role appear
+     * together in {@link #getInstanceList(Type)} and {@link #getComponentDescriptorList(Type)}. Existing components
+     * with the same role and hint are replaced. When several descriptors have the same role and hint, the last one
+     * is registered, as if they were registered one after the other. The dependencies which cannot be resolved once
+     * the batch is registered are logged and returned. Components registered one by one are not checked since their
+     * dependencies are usually registered after them, see {@link #getMissingDependencies()} instead.
+     *
+     * @param componentDescriptors the descriptors of the components to register
+     * @return the dependencies of the registered components which cannot be resolved, Provider, Lazy and collection
+     *         dependencies excepted, by component
+     */
+    public Map<ComponentKey, List<ComponentDependency<?>>> registerComponents(Collection<? extends ComponentDescriptor<?>> componentDescriptors) {
+        Map<ComponentKey, ComponentDescriptor<?>> descriptors = new LinkedHashMap<>();
+        for (ComponentDescriptor<?> componentDescriptor : componentDescriptors) {
+            checkFrozen(componentDescriptor.getRoleType(), componentDescriptor.getRoleHint());
+
+            ComponentKey key = new ComponentKey(componentDescriptor.getRoleType(), componentDescriptor.getRoleHint());
+            // Keep the position of the first one, which doesn't matter, and the last descriptor
+            descriptors.put(key, componentDescriptor);
+        }
+
+        Map<ComponentKey, ComponentEntry<?>> batchEntries = new HashMap<>();
+        Map<Type, Map<String, ComponentEntry<?>>> batch = new LinkedHashMap<>();
+        for (ComponentDescriptor<?> componentDescriptor : descriptors.values()) {
+            ComponentEntry<?> componentEntry =
+                    createComponentEntry(new DefaultComponentDescriptor<>(componentDescriptor), null);
+            joinSingletonCell(componentEntry);
+            batchEntries.put(componentEntry.key, componentEntry);
+            batch.computeIfAbsent(componentEntry.key.getRoleType(), role -> new LinkedHashMap<>())
+                    .put(componentEntry.key.getRoleHint(), componentEntry);
+        }
+
+        List<ComponentEntry<?>> previousEntries = new ArrayList<>();
+        this.registrationLock.writeLock().lock();
+        try {
+            // From now on the lookups see the whole batch
+            this.publishingBatch = batchEntries;
+            this.batchCount.incrementAndGet();
+            try {
+                for (Map.Entry<Type, Map<String, ComponentEntry<?>>> roleBatch : batch.entrySet()) {
+                    for (ComponentEntry<?> componentEntry : roleBatch.getValue().values()) {
+                        ComponentEntry<?> previousEntry = addComponent(componentEntry, false);
+                        if (previousEntry != null) {
+                            previousEntries.add(previousEntry);
+                        }
+                    }
+                    getRoleEntries(roleBatch.getKey()).putAll(roleBatch.getValue());
+                }
+            } finally {
+                this.batchCount.incrementAndGet();
+                this.publishingBatch = null;
+            }
+        } finally {
+            this.registrationLock.writeLock().unlock();
+        }
+
+        registryChanged();
+
+        logger.debug("[DefaultComponentManager] registerComponents count={}", componentDescriptors.size());
+
+        List<ComponentEntry<?>> registeredEntries = new ArrayList<>(batchEntries.size());
+        for (Map<String, ComponentEntry<?>> roleBatch : batch.values()) {
+            registeredEntries.addAll(roleBatch.values());
+        }
+        Map<ComponentKey, List<ComponentDependency<?>>> missingDependencies =
+                reportMissingDependencies(registeredEntries);
+
+        for (ComponentEntry<?> previousEntry : previousEntries) {
+            retirePreviousEntry(previousEntry);
+        }
+
+        return missingDependencies;
+    }
+
+    private <T> ComponentEntry<T> createComponentEntry(ComponentDescriptor<T> descriptor, T instance) {
+        ComponentKey key = new ComponentKey(descriptor.getRoleType(), descriptor.getRoleHint()).intern();
+        ComponentEntry<T> componentEntry = new ComponentEntry<>(this, key, descriptor, instance);
+        if (this.metricsEnabled) {
+            componentEntry.metrics = new ComponentMetrics();
+        }
+        if (instance == null) {
+            // Resolve the constructor, fields and methods outside of the lookups
+            try {
+                componentEntry.getInjectionPlan();
+            } catch (RuntimeException e) {
+                logger.debug("Failed to resolve the injection plan of component [{}]: {}", key, e.toString());
+            }
+        }
+        return componentEntry;
     }
 
-    private <T> void addComponent(ComponentDescriptor<T> descriptor, T instance) {
+    /**
+     * Publish the passed entry, atomically replacing the entry with the same key.
+     *
+     * @param addToRole false when the caller adds the entry to the entries of its role itself
+     * @return the replaced entry, or null
+     */
+    private ComponentEntry<?> addComponent(ComponentEntry<?> componentEntry, boolean addToRole) {
+        ComponentKey key = componentEntry.key;
+        ComponentEntry<?>[] previousEntry = new ComponentEntry<?>[1];
+        this.componentEntries.compute(key, (entryKey, currentEntry) -> {
+            previousEntry[0] = currentEntry;
+
+            Object instance = componentEntry.instance;
+            if (instance != null) {
+                if (componentEntry.cell != null && componentEntry.cell.key != null) {
+                    // A shared singleton stays attached to the entry which created it
+                    this.instanceEntries.putIfAbsent(new InstanceKey(instance), componentEntry);
+                } else {
+                    this.instanceEntries.put(new InstanceKey(instance), componentEntry);
+                }
+            }
+            if (ComponentKey.isDefaultHint(key.getRoleHint())) {
+                this.defaultComponentEntries.put(key.getRoleType(), componentEntry);
+            }
+            if (addToRole) {
+                getRoleEntries(key.getRoleType()).put(key.getRoleHint(), componentEntry);
+            }
+            return componentEntry;
+        });
 
-        ComponentEntry<T> componentEntry = new ComponentEntry<>(descriptor, instance);
+        return previousEntry[0];
+    }
 
-        // Register new component
-        Map<String, ComponentEntry<?>> entries = this.componentEntries.get(descriptor.getRoleType());
-        if (entries == null) {
-            entries = new ConcurrentHashMap<>();
-            this.componentEntries.put(descriptor.getRoleType(), entries);
+    private RoleEntries getRoleEntries(Type roleType) {
+        return this.roleEntries.computeIfAbsent(roleType, role -> {
+            logger.debug("[DefaultComponentManager] addComponent type=" + roleType);
+            return new RoleEntries();
+        });
+    }
 
-            logger.debug("[DefaultComponentManager] addComponent type=" + descriptor.getRoleType() + " hint=" + descriptor.getRoleHint());
+    /**
+     * Retire an entry which was replaced or removed, once it's not visible anymore.
+     */
+    private void retirePreviousEntry(ComponentEntry<?> previousEntry) {
+        if (previousEntry != null) {
+            try {
+                retireComponentEntry(previousEntry);
+            } catch (Exception e) {
+                this.logger.warn("Some exception raised during removing component.", e);
+            }
         }
-        entries.put(descriptor.getRoleHint(), componentEntry);
     }
 
     @Override
     public void unregisterComponent(Type role, String hint) {
+        checkFrozen(role, hint);
+
+        ComponentEntry<?> removedEntry;
+        this.registrationLock.readLock().lock();
         try {
-            removeComponent(role, hint);
-        } catch (Exception e) {
-            this.logger.warn("Some exception raised during removing component.", e);
+            removedEntry = removeComponent(role, hint);
+        } finally {
+            this.registrationLock.readLock().unlock();
+        }
+        if (removedEntry != null) {
+            registryChanged();
         }
+
+        retirePreviousEntry(removedEntry);
     }
 
     @Override
@@ -265,20 +2168,82 @@ public class DefaultComponentManager implements ComponentManager {
         return result;
     }
 
-    @Override
-    public <T> List<ComponentDescriptor<T>> getComponentDescriptorList(Type role) {
-        Map<String, ComponentDescriptor<T>> descriptors = new HashMap<>();
+    /**
+     * Compile the registry into an immutable {@link FrozenRegistry} which is looked up before the regular one. The
+     * injection plan of each component is computed, and the singletons already created are kept as final
+     * references which are returned without going through the entry.
+     *
+     * @param policy what to do with the registrations and unregistrations that follow
+     */
+    protected void freezeRegistry(FrozenRegistrationPolicy policy) {
+        List<ComponentKey> keys = new ArrayList<>(this.componentEntries.size());
+        List<FrozenEntry> entries = new ArrayList<>(this.componentEntries.size());
+        for (ComponentEntry<?> componentEntry : this.componentEntries.values()) {
+            ComponentDependency<?>[] dependencies = componentEntry.getInjectionPlan().getDependencies();
+            if (!this.dependencyInstanceOverridden) {
+                DependencyEdge[] edges = getDependencyEdges(componentEntry, dependencies.length);
+                for (int i = 0; i < dependencies.length; ++i) {
+                    getDependencyEdge(dependencies[i], edges, i);
+                }
+            }
+            keys.add(componentEntry.key);
+            // Pooled, thread and scoped components never have an instance
+            entries.add(new FrozenEntry(componentEntry, componentEntry.instance));
+        }
+
+        reportMissingDependencies(this.componentEntries.values());
+
+        this.frozenPolicy = policy;
+        FrozenRegistry<FrozenEntry> frozen = new FrozenRegistry<>(keys, entries);
+        this.frozenRegistry.set(frozen);
+
+        logger.debug("Froze {} components, perfect hash: {}", frozen.size(), frozen.isPerfectHash());
+    }
+
+    /**
+     * @return true if the registry has been frozen with {@link #freezeRegistry(FrozenRegistrationPolicy)}
+     */
+    public boolean isFrozen() {
+        return this.frozenRegistry.get() != null;
+    }
 
-        // Add local descriptors
-        Map<String, ComponentEntry<?>> enries = this.componentEntries.get(role);
-        if (enries != null) {
-            for (Map.Entry<String, ComponentEntry<?>> entry : enries.entrySet()) {
-                descriptors.put(entry.getKey(), (ComponentDescriptor<T>) entry.getValue().descriptor);
+    private void checkFrozen(Type role, String hint) {
+        if (this.frozenRegistry.get() != null) {
+            if (this.frozenPolicy == FrozenRegistrationPolicy.REJECT) {
+                throw new IllegalStateException(String.format(
+                        "Cannot modify component [%s] identified by [%s]: the registry is frozen", role, hint));
             }
+            unfreezeComponent(new ComponentKey(role, hint));
         }
+    }
+
+    /**
+     * Replace the frozen registry by a copy without the passed component, which is then looked up in the regular
+     * registry.
+     */
+    private void unfreezeComponent(ComponentKey key) {
+        this.frozenRegistry.updateAndGet(frozen -> frozen != null ? frozen.without(key) : null);
+    }
 
-        return new ArrayList<>(descriptors.values());
+    /**
+     * @return the descriptors of all the registered components
+     */
+    protected Collection<ComponentDescriptor<?>> getComponentDescriptors() {
+        List<ComponentDescriptor<?>> descriptors = new ArrayList<>(this.componentEntries.size());
+        for (ComponentEntry<?> entry : this.componentEntries.values()) {
+            descriptors.add(entry.descriptor);
+        }
+        return descriptors;
     }
 
+    @Override
+    public <T> List<ComponentDescriptor<T>> getComponentDescriptorList(Type role) {
+        RoleSnapshot snapshot = getRoleSnapshot(role);
+        if (snapshot == null) {
+            return Collections.emptyList();
+        }
+
+        return (List) snapshot.descriptors;
+    }
 
 }
\ No newline at end of file
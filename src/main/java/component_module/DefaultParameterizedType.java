@@ -0,0 +1,110 @@
+package component_module;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Basic implementation of ParameterizedType, used when a generic type has to be rebuilt without a Field or a Class to
+ * get it from.
+ * Equality and hash code follow the JDK implementation so that both can be mixed as map keys. The hash code is
+ * computed once.
+ *
+ * @author Hamza Ouni
+ */
+public class DefaultParameterizedType implements ParameterizedType {
+
+    private final Type ownerType;
+
+    private final Class<?> rawType;
+
+    private final Type[] actualTypeArguments;
+
+    private final int hash;
+
+    private final boolean canonical;
+
+    /**
+     * @param ownerType the owner type, the declaring class of the raw type is used when null
+     * @param rawType the raw type
+     * @param actualTypeArguments the type arguments
+     */
+    public DefaultParameterizedType(Type ownerType, Class<?> rawType, Type... actualTypeArguments) {
+        this(ownerType, rawType, actualTypeArguments, false);
+    }
+
+    DefaultParameterizedType(Type ownerType, Class<?> rawType, Type[] actualTypeArguments, boolean canonical) {
+        this.ownerType = ownerType != null ? ownerType : rawType.getDeclaringClass();
+        this.rawType = rawType;
+        this.actualTypeArguments = actualTypeArguments;
+        this.hash = Arrays.hashCode(this.actualTypeArguments) ^ Objects.hashCode(this.ownerType)
+                ^ Objects.hashCode(this.rawType);
+        this.canonical = canonical;
+    }
+
+    /**
+     * @return true if this is the instance returned by {@link TypeInterner#intern(Type)} for this type
+     */
+    boolean isCanonical() {
+        return this.canonical;
+    }
+
+    @Override
+    public Type[] getActualTypeArguments() {
+        return this.actualTypeArguments.clone();
+    }
+
+    @Override
+    public Type getRawType() {
+        return this.rawType;
+    }
+
+    @Override
+    public Type getOwnerType() {
+        return this.ownerType;
+    }
+
+    @Override
+    public boolean equals(Object object) {
+
+        boolean result;
+
+        if (this == object) {
+            result = true;
+        } else if (object instanceof ParameterizedType) {
+            ParameterizedType parameterizedType = (ParameterizedType) object;
+            result = Objects.equals(this.rawType, parameterizedType.getRawType())
+                    && Objects.equals(this.ownerType, parameterizedType.getOwnerType())
+                    && Arrays.equals(this.actualTypeArguments, parameterizedType.getActualTypeArguments());
+        } else {
+            result = false;
+        }
+
+        return result;
+    }
+
+    @Override
+    public int hashCode() {
+        return this.hash;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+
+        builder.append(this.rawType.getName());
+        if (this.actualTypeArguments.length > 0) {
+            builder.append('<');
+            for (int i = 0; i < this.actualTypeArguments.length; ++i) {
+                if (i > 0) {
+                    builder.append(", ");
+                }
+                builder.append(this.actualTypeArguments[i].getTypeName());
+            }
+            builder.append('>');
+        }
+
+        return builder.toString();
+    }
+}
@@ -1,7 +1,23 @@
 package component_module;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import javax.inject.Singleton;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author Hamza Ouni
@@ -9,9 +25,21 @@ import java.util.List;
 @Singleton
 public class EmbedComponentManager extends DefaultComponentManager implements Initializable, Disposable {
 
+    private static final Logger logger = LoggerFactory.getLogger(EmbedComponentManager.class);
+
+    private StartupMode startupMode = StartupMode.LAZY;
+
+    private volatile StartupReport startupReport;
+
+    private long disposeTimeout = 10000;
+
     public EmbedComponentManager() {
         super();
 
+        if (System.getProperty(StartupTracer.TRACE_FILE_PROPERTY) != null) {
+            setStartupTracer(new StartupTracer());
+        }
+
         registerThis();
     }
 
@@ -30,15 +58,235 @@ public class EmbedComponentManager extends DefaultComponentManager implements In
     public void initialize() throws ComponentException {
     }
 
+    /**
+     * Dispose all the components, see {@link #disposeComponents(long, TimeUnit)}.
+     */
     @Override
     public void dispose() throws ComponentException {
+        disposeComponents(this.disposeTimeout, TimeUnit.MILLISECONDS);
     }
 
+    /**
+     * @param disposeTimeout the maximum time {@link #dispose()} waits for each component to dispose, in milliseconds
+     */
+    public void setDisposeTimeout(long disposeTimeout) {
+        this.disposeTimeout = disposeTimeout;
+    }
+
+    /**
+     * @return the maximum time {@link #dispose()} waits for each component to dispose, in milliseconds
+     */
+    public long getDisposeTimeout() {
+        return this.disposeTimeout;
+    }
+
+    /**
+     * @param startupMode what {@link #initializeComponents()} does after registering the components
+     */
+    public void setStartupMode(StartupMode startupMode) {
+        this.startupMode = startupMode;
+    }
+
+    /**
+     * @return what {@link #initializeComponents()} does after registering the components
+     */
+    public StartupMode getStartupMode() {
+        return this.startupMode;
+    }
+
+    /**
+     * @return the report of the last {@link #initializeSingletons()} or null if it was never called
+     */
+    public StartupReport getStartupReport() {
+        return this.startupReport;
+    }
+
+    @SuppressWarnings("try")
     public void initializeComponents() {
+        try (StartupTracer.Span span = StartupTracer.begin(getStartupTracer(), "startup", "initializeComponents")) {
+            // Load all component annotations and register them as components
+            ComponentManagerLoader loader = new ComponentManagerLoader();
+            loader.initialize(this);
 
-        // Load all component annotations and register them as components
-        ComponentManagerLoader loader = new ComponentManagerLoader();
-        loader.initialize(this);
+            if (this.startupMode == StartupMode.PARALLEL_EAGER) {
+                try {
+                    initializeSingletons();
+                } catch (ComponentException e) {
+                    logger.error("Failed to create the singleton components", e);
+                }
+            }
+        }
+
+        writeStartupTrace();
     }
-}
 
+    /**
+     * Freeze the registry, rejecting any later registration or unregistration.
+     *
+     * @throws ComponentException if some singletons failed to be created
+     * @see #freeze(FrozenRegistrationPolicy)
+     */
+    public void freeze() throws ComponentException {
+        freeze(FrozenRegistrationPolicy.REJECT);
+    }
+
+    /**
+     * Create all the registered singletons and compile the registry into an immutable structure optimized for
+     * lookups, to call once the application is booted. The singletons are then returned without any synchronization.
+     *
+     * @param policy what to do with the registrations and unregistrations that follow
+     * @throws ComponentException if some singletons failed to be created, in which case the registry is not frozen
+     */
+    public void freeze(FrozenRegistrationPolicy policy) throws ComponentException {
+        initializeSingletons();
+        freezeRegistry(policy);
+    }
+
+    /**
+     * Create all the registered singletons using as many threads as there are processors.
+     *
+     * @return the timings of the singletons creation
+     * @throws ComponentException if some singletons failed to be created
+     */
+    public StartupReport initializeSingletons() throws ComponentException {
+        ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        try {
+            return initializeSingletons(pool);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Create all the registered singletons in parallel. Each singleton is created, and initialized, as soon as the
+     * components it depends on are, so that independent singletons are created at the same time.
+     *
+     * @param pool the pool in which to create the singletons
+     * @return the timings of the singletons creation
+     * @throws ComponentException if some singletons failed to be created
+     */
+    public StartupReport initializeSingletons(ForkJoinPool pool) throws ComponentException {
+        try (StartupTracer.Span span = StartupTracer.begin(getStartupTracer(), "startup", "initializeSingletons")) {
+            return initializeSingletons(pool, span);
+        }
+    }
+
+    private StartupReport initializeSingletons(ForkJoinPool pool, StartupTracer.Span parentSpan)
+            throws ComponentException {
+        long start = System.nanoTime();
+
+        ComponentGraph graph = new ComponentGraph(getComponentDescriptors());
+        List<List<ComponentKey>> levels = graph.getLevels();
+        List<ComponentKey> cyclicKeys = graph.getCyclicKeys();
+        if (!cyclicKeys.isEmpty()) {
+            logger.warn("Components part of a dependency cycle are not created at startup: {}", cyclicKeys);
+        }
+
+        Map<ComponentKey, Long> creationTimes = new ConcurrentHashMap<>();
+        Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        Map<ComponentKey, CompletableFuture<Void>> futures = new HashMap<>();
+        for (List<ComponentKey> level : levels) {
+            for (ComponentKey key : level) {
+                List<ComponentKey> dependencies = graph.getDependencies(key);
+                CompletableFuture<?>[] dependencyFutures = new CompletableFuture<?>[dependencies.size()];
+                for (int i = 0; i < dependencyFutures.length; ++i) {
+                    dependencyFutures[i] = futures.get(dependencies.get(i));
+                }
+                futures.put(key, CompletableFuture.allOf(dependencyFutures)
+                        .thenRunAsync(() -> createSingleton(graph, key, creationTimes, failures, parentSpan), pool));
+            }
+        }
+
+        for (CompletableFuture<Void> future : futures.values()) {
+            try {
+                future.join();
+            } catch (CompletionException e) {
+                // Reported by createSingleton, the dependents of a failed component are not created
+            }
+        }
+
+        StartupReport report = createStartupReport(System.nanoTime() - start, levels, graph, creationTimes);
+        this.startupReport = report;
+        logger.info("{}", report);
+
+        if (!failures.isEmpty()) {
+            ComponentException exception = new ComponentException(
+                    String.format("Failed to create %d singleton components", failures.size()), failures.poll());
+            for (Throwable failure : failures) {
+                exception.addSuppressed(failure);
+            }
+            throw exception;
+        }
+
+        return report;
+    }
+
+    @SuppressWarnings("try")
+    private void createSingleton(ComponentGraph graph, ComponentKey key, Map<ComponentKey, Long> creationTimes,
+            Queue<Throwable> failures, StartupTracer.Span parentSpan) {
+        if (graph.getDescriptor(key).getInstantiationStrategy() == ComponentInstantiationStrategy.SINGLETON) {
+            long start = System.nanoTime();
+            try (StartupTracer.Span span = StartupTracer.begin(getStartupTracer(), "singleton", key, parentSpan)) {
+                getInstance(key.getRoleType(), key.getRoleHint());
+            } catch (Exception e) {
+                failures.add(e);
+                throw new CompletionException(e);
+            }
+            creationTimes.put(key, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Write the trace of the startup to the file set in the {@value StartupTracer#TRACE_FILE_PROPERTY} system
+     * property, if any, and stop tracing.
+     */
+    private void writeStartupTrace() {
+        String traceFile = System.getProperty(StartupTracer.TRACE_FILE_PROPERTY);
+        StartupTracer tracer = getStartupTracer();
+        if (traceFile != null && tracer != null) {
+            setStartupTracer(null);
+            try {
+                tracer.writeChromeTrace(new File(traceFile));
+                logger.info("Wrote the startup trace to [{}]", traceFile);
+            } catch (IOException e) {
+                logger.warn("Failed to write the startup trace to [{}]", traceFile, e);
+            }
+        }
+    }
+
+    private StartupReport createStartupReport(long wallTime, List<List<ComponentKey>> levels, ComponentGraph graph,
+            Map<ComponentKey, Long> creationTimes) {
+        // Longest chain of dependent components, weighted by creation time
+        Map<ComponentKey, Long> pathTimes = new HashMap<>();
+        Map<ComponentKey, ComponentKey> previous = new HashMap<>();
+        ComponentKey last = null;
+        for (List<ComponentKey> level : levels) {
+            for (ComponentKey key : level) {
+                ComponentKey slowestDependency = null;
+                long dependenciesTime = 0;
+                for (ComponentKey dependency : graph.getDependencies(key)) {
+                    long dependencyTime = pathTimes.get(dependency);
+                    if (slowestDependency == null || dependencyTime > dependenciesTime) {
+                        slowestDependency = dependency;
+                        dependenciesTime = dependencyTime;
+                    }
+                }
+                if (slowestDependency != null) {
+                    previous.put(key, slowestDependency);
+                }
+                pathTimes.put(key, dependenciesTime + creationTimes.getOrDefault(key, 0L));
+                if (last == null || pathTimes.get(key) > pathTimes.get(last)) {
+                    last = key;
+                }
+            }
+        }
+
+        LinkedList<ComponentKey> criticalPath = new LinkedList<>();
+        for (ComponentKey key = last; key != null; key = previous.get(key)) {
+            criticalPath.addFirst(key);
+        }
+
+        return new StartupReport(wallTime, levels.size(), creationTimes, new ArrayList<>(criticalPath),
+                last != null ? pathTimes.get(last) : 0);
+    }
+}
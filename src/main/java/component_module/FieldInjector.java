@@ -0,0 +1,80 @@
+package component_module;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+
+/**
+ * Writes a dependency value into a field of a component instance.
+ * The field is resolved once and then written through a cached MethodHandle. Reflection is only used when no handle
+ * can be created for the field.
+ *
+ * @author Hamza Ouni
+ */
+public class FieldInjector {
+
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private final String fieldName;
+
+    private final MethodHandle setter;
+
+    private FieldInjector(String fieldName, MethodHandle setter) {
+        this.fieldName = fieldName;
+        this.setter = setter;
+    }
+
+    /**
+     * Resolve the field and its setter handle.
+     *
+     * @param componentClass the class declaring the field or one of its subclasses
+     * @param fieldName the name of the field to inject
+     * @return the injector for the passed field
+     */
+    public static FieldInjector create(Class<?> componentClass, String fieldName) {
+
+        Field field;
+        try {
+            field = ReflectionUtils.getField(componentClass, fieldName);
+        } catch (NoSuchFieldException e) {
+            // Let ReflectionUtils.setFieldValue look for it at injection time
+            return new FieldInjector(fieldName, null);
+        }
+
+        MethodHandle setter;
+        try {
+            field.setAccessible(true);
+            setter = MethodHandles.lookup().unreflectSetter(field).asType(SETTER_TYPE);
+        } catch (Exception e) {
+            // Probably prevented by the Java security manager, keep the reflective path.
+            setter = null;
+        }
+
+        return new FieldInjector(fieldName, setter);
+    }
+
+    /**
+     * @return the name of the injected field
+     */
+    public String getFieldName() {
+        return this.fieldName;
+    }
+
+    /**
+     * @param instance the component instance
+     * @param value the value to set in the field
+     */
+    public void inject(Object instance, Object value) {
+        if (this.setter != null) {
+            try {
+                this.setter.invokeExact(instance, value);
+            } catch (Throwable e) {
+                throw new RuntimeException("Failed to set field [" + this.fieldName + "] in instance of ["
+                        + instance.getClass().getName() + "]", e);
+            }
+        } else {
+            ReflectionUtils.setFieldValue(instance, this.fieldName, value);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package component_module;
+
+/**
+ * What happens when a component is registered or unregistered once the registry has been frozen with
+ * {@link EmbedComponentManager#freeze(FrozenRegistrationPolicy)}.
+ *
+ * @author Hamza Ouni
+ */
+public enum FrozenRegistrationPolicy {
+
+    /**
+     * The modification fails with an {@link IllegalStateException}.
+     */
+    REJECT,
+
+    /**
+     * The modification is applied to the regular registry, which is looked up when the frozen one doesn't have the
+     * component. The modified component is removed from a copy of the frozen registry, which replaces it.
+     */
+    OVERLAY
+}
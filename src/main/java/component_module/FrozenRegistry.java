@@ -0,0 +1,263 @@
+package component_module;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable index of a fixed set of components, optimized for lookups.
+ * The components are stored in flat arrays addressed through a minimal perfect hash of their role and hint, built
+ * with the hash and displace (CHD) algorithm: a lookup hashes the key twice, reads one displacement and compares a
+ * single candidate, without allocating anything. When no perfect hash can be found, for instance because two keys
+ * have the same hash code, a {@link HashMap} is used instead.
+ *
+ * @param <V> the type of the values associated with the components
+ * @author Hamza Ouni
+ */
+public class FrozenRegistry<V> {
+
+    /**
+     * Average number of keys per bucket of displacements.
+     */
+    private static final int BUCKET_SIZE = 2;
+
+    /**
+     * The number of components left in the registry.
+     */
+    private final int size;
+
+    private final Type[] roleTypes;
+
+    private final String[] roleHints;
+
+    private final Object[] values;
+
+    private final int[] displacements;
+
+    /**
+     * The slot of each component when no perfect hash was found.
+     */
+    private final Map<ComponentKey, Integer> fallback;
+
+    /**
+     * One bit per slot set for the components left out by {@link #without(ComponentKey)}, null when there are none,
+     * so that leaving out a component doesn't rebuild the whole registry.
+     */
+    private final long[] removedSlots;
+
+    /**
+     * @param keys the components, without duplicates
+     * @param values the value of each component, in the same order
+     */
+    public FrozenRegistry(List<ComponentKey> keys, List<V> values) {
+        this.size = keys.size();
+        this.roleTypes = new Type[this.size];
+        this.roleHints = new String[this.size];
+        this.values = new Object[this.size];
+        this.removedSlots = null;
+
+        int[] slots = computeSlots(keys);
+        if (slots != null) {
+            this.displacements = Arrays.copyOf(slots, slots.length - this.size);
+            this.fallback = null;
+        } else {
+            this.displacements = null;
+            this.fallback = new HashMap<>();
+        }
+        for (int i = 0; i < this.size; ++i) {
+            int slot = slots != null ? slots[this.displacements.length + i] : i;
+            this.roleTypes[slot] = keys.get(i).getRoleType();
+            this.roleHints[slot] = keys.get(i).getRoleHint();
+            this.values[slot] = values.get(i);
+            if (this.fallback != null) {
+                this.fallback.put(keys.get(i), slot);
+            }
+        }
+    }
+
+    /**
+     * Share the tables of the passed registry.
+     */
+    private FrozenRegistry(FrozenRegistry<V> registry, long[] removedSlots, int size) {
+        this.size = size;
+        this.roleTypes = registry.roleTypes;
+        this.roleHints = registry.roleHints;
+        this.values = registry.values;
+        this.displacements = registry.displacements;
+        this.fallback = registry.fallback;
+        this.removedSlots = removedSlots;
+    }
+
+    /**
+     * @return the displacements of each bucket followed by the slot of each key, or null if no perfect hash was found
+     */
+    private static int[] computeSlots(List<ComponentKey> keys) {
+        int keyCount = keys.size();
+        if (keyCount == 0) {
+            return null;
+        }
+
+        // Keys with the same hash code can never be told apart
+        Set<Integer> hashes = new HashSet<>(keyCount * 2);
+        for (ComponentKey key : keys) {
+            if (!hashes.add(key.hashCode())) {
+                return null;
+            }
+        }
+
+        int bucketCount = Math.max(1, keyCount / BUCKET_SIZE);
+        List<List<Integer>> buckets = new ArrayList<>(bucketCount);
+        for (int i = 0; i < bucketCount; ++i) {
+            buckets.add(new ArrayList<>(BUCKET_SIZE));
+        }
+        for (int i = 0; i < keyCount; ++i) {
+            buckets.get(getBucket(keys.get(i).hashCode(), bucketCount)).add(i);
+        }
+
+        Integer[] bucketOrder = new Integer[bucketCount];
+        for (int i = 0; i < bucketCount; ++i) {
+            bucketOrder[i] = i;
+        }
+        // The largest buckets are the hardest to place so place them while the table is still empty
+        Arrays.sort(bucketOrder, (first, second) -> buckets.get(second).size() - buckets.get(first).size());
+
+        int[] result = new int[bucketCount + keyCount];
+        boolean[] occupied = new boolean[keyCount];
+        int[] bucketSlots = new int[keyCount];
+        int maxAttempts = Math.max(1000, 20 * keyCount);
+        for (int bucket : bucketOrder) {
+            List<Integer> bucketKeys = buckets.get(bucket);
+            if (bucketKeys.isEmpty()) {
+                break;
+            }
+
+            int displacement = 1;
+            while (!place(keys, bucketKeys, displacement, occupied, bucketSlots)) {
+                if (++displacement > maxAttempts) {
+                    return null;
+                }
+            }
+            result[bucket] = displacement;
+            for (int i = 0; i < bucketKeys.size(); ++i) {
+                occupied[bucketSlots[i]] = true;
+                result[bucketCount + bucketKeys.get(i)] = bucketSlots[i];
+            }
+        }
+
+        return result;
+    }
+
+    private static boolean place(List<ComponentKey> keys, List<Integer> bucketKeys, int displacement,
+            boolean[] occupied, int[] bucketSlots) {
+        for (int i = 0; i < bucketKeys.size(); ++i) {
+            int slot = getSlot(keys.get(bucketKeys.get(i)).hashCode(), displacement, occupied.length);
+            if (occupied[slot]) {
+                return false;
+            }
+            for (int j = 0; j < i; ++j) {
+                if (bucketSlots[j] == slot) {
+                    return false;
+                }
+            }
+            bucketSlots[i] = slot;
+        }
+        return true;
+    }
+
+    private static int getBucket(int hash, int bucketCount) {
+        return (mix(hash) & Integer.MAX_VALUE) % bucketCount;
+    }
+
+    private static int getSlot(int hash, int displacement, int slotCount) {
+        return (mix(hash ^ (displacement * 0x9E3779B9)) & Integer.MAX_VALUE) % slotCount;
+    }
+
+    /**
+     * The finalization step of MurmurHash3, to spread the bits of the hash codes.
+     */
+    private static int mix(int hash) {
+        int h = hash;
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    /**
+     * @param roleType the role type of the component
+     * @param roleHint the hint of the component, the default hint when null
+     * @return the value associated with the component or null if it's not part of the registry
+     */
+    public V get(Type roleType, String roleHint) {
+        int slot = getSlot(roleType, roleHint != null ? roleHint : ComponentKey.DEFAULT_HINT);
+        return slot >= 0 ? (V) this.values[slot] : null;
+    }
+
+    /**
+     * @return the slot of the component or -1 if it's not part of the registry
+     */
+    private int getSlot(Type roleType, String hint) {
+        int slot;
+        if (this.displacements != null) {
+            // Same as ComponentKey#hashCode()
+            int hash = 31 * roleType.hashCode() + hint.hashCode();
+            slot = getSlot(hash, this.displacements[getBucket(hash, this.displacements.length)],
+                    this.roleTypes.length);
+
+            String slotHint = this.roleHints[slot];
+            Type slotRoleType = this.roleTypes[slot];
+            if ((slotHint != hint && !slotHint.equals(hint))
+                    || (slotRoleType != roleType && !slotRoleType.equals(roleType))) {
+                return -1;
+            }
+        } else {
+            Integer fallbackSlot = this.fallback.get(new ComponentKey(roleType, hint));
+            if (fallbackSlot == null) {
+                return -1;
+            }
+            slot = fallbackSlot;
+        }
+
+        long[] removed = this.removedSlots;
+        return removed != null && (removed[slot >>> 6] & (1L << slot)) != 0 ? -1 : slot;
+    }
+
+    /**
+     * @param key the component to leave out
+     * @return a copy of this registry without the passed component, or this registry if it doesn't contain it. The
+     *         copy shares the tables of this registry and only marks the component as left out.
+     */
+    public FrozenRegistry<V> without(ComponentKey key) {
+        String hint = key.getRoleHint();
+        int slot = getSlot(key.getRoleType(), hint != null ? hint : ComponentKey.DEFAULT_HINT);
+        if (slot < 0) {
+            return this;
+        }
+
+        long[] removed = this.removedSlots != null ? this.removedSlots.clone()
+                : new long[(this.roleTypes.length + 63) >>> 6];
+        removed[slot >>> 6] |= 1L << slot;
+        return new FrozenRegistry<>(this, removed, this.size - 1);
+    }
+
+    /**
+     * @return the number of components in the registry, without the ones left out
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * @return true if the components are indexed by a perfect hash, false if they are in a hash map
+     */
+    public boolean isPerfectHash() {
+        return this.displacements != null;
+    }
+}
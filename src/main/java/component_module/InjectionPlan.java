@@ -0,0 +1,261 @@
+package component_module;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resolved way of creating and injecting instances of a component.
+ * It's computed once per component descriptor so that creating an instance doesn't have to look for the
+ * constructor, fields and methods to inject again. The {@link ComponentFactory} generated for the component is used
+ * when there is one, cached MethodHandles are used for what it cannot do.
+ * <p>
+ * The dependencies are ordered the way they are injected: the constructor parameters first, then the fields and
+ * finally the parameters of each method.
+ *
+ * @param <T> the component role type
+ * @author Hamza Ouni
+ */
+public class InjectionPlan<T> {
+
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class, Object[].class);
+
+    private static final Object[] NO_ARGUMENTS = new Object[0];
+
+    /**
+     * The factory generated for each implementation, wrapped in an array since it's null when there is none.
+     * Factories are stateless so the components sharing an implementation share its factory, and a missing factory
+     * is only looked for once in the class path.
+     */
+    private static final ClassValue<ComponentFactory<?>[]> FACTORIES = new ClassValue<ComponentFactory<?>[]>() {
+        @Override
+        protected ComponentFactory<?>[] computeValue(Class<?> implementation) {
+            ComponentFactory<?> factory;
+            try {
+                Class<?> factoryClass = Class.forName(ComponentFactory.getFactoryName(implementation.getName()),
+                        true, implementation.getClassLoader());
+                factory = (ComponentFactory<?>) factoryClass.getConstructor().newInstance();
+            } catch (ClassNotFoundException e) {
+                // The component was not compiled with the component index processor
+                factory = null;
+            } catch (Exception | LinkageError e) {
+                throw new RuntimeException(String.format("Failed to load the factory of component [%s]",
+                        implementation.getName()), e);
+            }
+            return new ComponentFactory<?>[] {factory};
+        }
+    };
+
+    private final Class<? extends T> implementation;
+
+    private final ComponentFactory<T> factory;
+
+    /**
+     * The constructor, taking its arguments as an array, or null when instances are created by the factory.
+     */
+    private final MethodHandle constructor;
+
+    private final ComponentDependency<?>[] dependencies;
+
+    private final int constructorParameterCount;
+
+    private final int fieldCount;
+
+    /**
+     * The index of each field dependency in the generated factory, -1 for the ones injected by
+     * {@link #fieldInjectors}.
+     */
+    private final int[] factoryIndexes;
+
+    private final FieldInjector[] fieldInjectors;
+
+    private final MethodInjector[] methodInjectors;
+
+    /**
+     * @param descriptor the descriptor of the component
+     */
+    public InjectionPlan(ComponentDescriptor<T> descriptor) {
+        this.implementation = descriptor.getImplementation();
+
+        List<ComponentDependency<?>> constructorDependencies = new ArrayList<>();
+        List<ComponentDependency<?>> fieldDependencies = new ArrayList<>();
+        List<ComponentDependency<?>> methodDependencies = new ArrayList<>();
+        for (ComponentDependency<?> dependency : descriptor.getComponentDependencies()) {
+            if (dependency.getInjectionPointType() == InjectionPointType.CONSTRUCTOR) {
+                constructorDependencies.add(dependency);
+            } else if (dependency.getInjectionPointType() == InjectionPointType.METHOD) {
+                methodDependencies.add(dependency);
+            } else {
+                fieldDependencies.add(dependency);
+            }
+        }
+        constructorDependencies.sort(Comparator.comparingInt(ComponentDependency::getParameterIndex));
+
+        List<ComponentDependency<?>> orderedDependencies = new ArrayList<>(constructorDependencies);
+        orderedDependencies.addAll(fieldDependencies);
+        this.methodInjectors = createMethodInjectors(this.implementation, descriptor.getInjectedMethods(),
+                methodDependencies, orderedDependencies);
+        this.dependencies = orderedDependencies.toArray(new ComponentDependency<?>[orderedDependencies.size()]);
+        this.constructorParameterCount = constructorDependencies.size();
+        this.fieldCount = fieldDependencies.size();
+
+        this.factory = loadFactory(this.implementation);
+        // The factory may have been generated for another constructor than the one of the descriptor
+        this.constructor = this.factory != null
+                && this.factory.getConstructorParameterCount() == this.constructorParameterCount
+                ? null : createConstructor(this.implementation, this.constructorParameterCount);
+
+        this.factoryIndexes = new int[this.fieldCount];
+        this.fieldInjectors = new FieldInjector[this.fieldCount];
+        for (int i = 0; i < this.fieldCount; ++i) {
+            String name = fieldDependencies.get(i).getName();
+            this.factoryIndexes[i] = this.factory != null ? this.factory.getDependencyIndex(name) : -1;
+            if (this.factoryIndexes[i] < 0) {
+                this.fieldInjectors[i] = FieldInjector.create(this.implementation, name);
+            }
+        }
+    }
+
+    private static <T> ComponentFactory<T> loadFactory(Class<? extends T> implementation) {
+        return (ComponentFactory<T>) FACTORIES.get(implementation)[0];
+    }
+
+    private static MethodHandle createConstructor(Class<?> implementation, int parameterCount) {
+        try {
+            Constructor<?> constructor = parameterCount > 0 ? ReflectionUtils.getInjectConstructor(implementation)
+                    : implementation.getDeclaredConstructor();
+            if (constructor == null || constructor.getParameterCount() != parameterCount) {
+                throw new NoSuchMethodException(String.format("No @Inject constructor with %d parameters",
+                        parameterCount));
+            }
+            constructor.setAccessible(true);
+
+            return MethodHandles.lookup().unreflectConstructor(constructor).asSpreader(Object[].class, parameterCount)
+                    .asType(CONSTRUCTOR_TYPE);
+        } catch (Exception e) {
+            throw new RuntimeException(String.format("Failed to resolve the constructor of component [%s]",
+                    implementation.getName()), e);
+        }
+    }
+
+    /**
+     * @param methods the signatures of the methods to call, in call order
+     * @param methodDependencies the parameters of the methods, named after the signature of their method
+     * @param orderedDependencies where to add the parameters of each method, in parameter order
+     */
+    private static MethodInjector[] createMethodInjectors(Class<?> implementation, Collection<String> methods,
+            List<ComponentDependency<?>> methodDependencies, List<ComponentDependency<?>> orderedDependencies) {
+        MethodInjector[] injectors = new MethodInjector[methods.size()];
+        if (injectors.length == 0) {
+            return injectors;
+        }
+
+        // Scan the class hierarchy once for all the methods
+        Map<String, Method> injectMethods = new HashMap<>();
+        for (Method injectMethod : ReflectionUtils.getInjectMethods(implementation)) {
+            injectMethods.put(ReflectionUtils.getMethodSignature(injectMethod), injectMethod);
+        }
+
+        int index = 0;
+        for (String method : methods) {
+            Method injectMethod = injectMethods.get(method);
+            if (injectMethod == null) {
+                throw new RuntimeException(String.format("Failed to resolve injected method [%s] of component [%s]",
+                        method, implementation.getName()));
+            }
+            MethodInjector injector = MethodInjector.create(implementation, injectMethod);
+            ComponentDependency<?>[] parameters = new ComponentDependency<?>[injector.getParameterCount()];
+            for (ComponentDependency<?> dependency : methodDependencies) {
+                if (dependency.getName().equals(method) && dependency.getParameterIndex() < parameters.length) {
+                    parameters[dependency.getParameterIndex()] = dependency;
+                }
+            }
+            for (int i = 0; i < parameters.length; ++i) {
+                if (parameters[i] == null) {
+                    throw new RuntimeException(String.format(
+                            "No dependency for parameter %d of injected method [%s] of component [%s]", i, method,
+                            implementation.getName()));
+                }
+            }
+            orderedDependencies.addAll(Arrays.asList(parameters));
+            injectors[index++] = injector;
+        }
+        return injectors;
+    }
+
+    /**
+     * @return the dependencies to inject, in injection order
+     */
+    public ComponentDependency<?>[] getDependencies() {
+        return this.dependencies;
+    }
+
+    /**
+     * @return the number of dependencies, at the start of {@link #getDependencies()}, passed to the constructor
+     */
+    public int getConstructorParameterCount() {
+        return this.constructorParameterCount;
+    }
+
+    /**
+     * @param values the values of the dependencies, only the constructor parameters are used
+     * @return a new instance of the component implementation, with only its constructor parameters injected
+     * @throws Exception when failing to create the instance
+     */
+    public T newInstance(Object[] values) throws Exception {
+        Object[] arguments = this.constructorParameterCount == 0 ? NO_ARGUMENTS
+                : values.length == this.constructorParameterCount ? values
+                : Arrays.copyOf(values, this.constructorParameterCount);
+
+        if (this.constructor == null) {
+            return this.factory.newInstance(arguments);
+        }
+
+        try {
+            return (T) this.constructor.invokeExact(arguments);
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new RuntimeException(String.format("Failed to create component [%s]",
+                    this.implementation.getName()), e);
+        }
+    }
+
+    /**
+     * Set the fields and then call the methods.
+     *
+     * @param instance the component instance
+     * @param values the values of the dependencies, the constructor parameters are ignored
+     * @throws Exception when an injected method fails
+     */
+    public void inject(T instance, Object[] values) throws Exception {
+        int index = this.constructorParameterCount;
+        for (int i = 0; i < this.fieldCount; ++i, ++index) {
+            Object value = values[index];
+            if (value != null) {
+                int factoryIndex = this.factoryIndexes[i];
+                if (factoryIndex >= 0) {
+                    this.factory.inject(instance, factoryIndex, value);
+                } else {
+                    this.fieldInjectors[i].inject(instance, value);
+                }
+            }
+        }
+
+        for (MethodInjector methodInjector : this.methodInjectors) {
+            int parameterCount = methodInjector.getParameterCount();
+            methodInjector.inject(instance,
+                    parameterCount == 0 ? NO_ARGUMENTS : Arrays.copyOfRange(values, index, index + parameterCount));
+            index += parameterCount;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package component_module;
+
+/**
+ * Where a {@link ComponentDependency} is injected.
+ *
+ * @author Hamza Ouni
+ */
+public enum InjectionPointType {
+
+    /**
+     * An {@code @Inject} field, set after the instance is created.
+     */
+    FIELD,
+
+    /**
+     * A parameter of the {@code @Inject} constructor, resolved before the instance is created.
+     */
+    CONSTRUCTOR,
+
+    /**
+     * A parameter of an {@code @Inject} method, called once all the fields are injected.
+     */
+    METHOD
+}
@@ -0,0 +1,25 @@
+package component_module;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Defines the way a component is instantiated. Components with the JSR 330 Singleton annotation are singletons, the
+ * other ones default to {@link ComponentInstantiationStrategy#PER_LOOKUP}.
+ *
+ * @author Hamza Ouni
+ */
+@Documented
+@Retention(RUNTIME)
+@Target(TYPE)
+public @interface InstantiationStrategy {
+
+    /**
+     * @return the way the component should be instantiated
+     */
+    ComponentInstantiationStrategy value();
+}
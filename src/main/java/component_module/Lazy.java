@@ -0,0 +1,17 @@
+package component_module;
+
+/**
+ * Injectable reference to a component which is only looked up the first time it's needed, and then kept.
+ * Use it instead of the component role for dependencies which are expensive to create and rarely used.
+ *
+ * @param <T> the component role type
+ * @author Hamza Ouni
+ */
+public interface Lazy<T> {
+
+    /**
+     * @return the component instance, always the same one once it's been looked up
+     * @throws RuntimeException if the component cannot be created
+     */
+    T get();
+}
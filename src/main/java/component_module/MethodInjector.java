@@ -0,0 +1,83 @@
+package component_module;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+
+/**
+ * Calls an {@code @Inject} method of a component instance with the dependency values.
+ * The method is resolved once and then called through a cached MethodHandle spreading the values over the
+ * parameters.
+ *
+ * @author Hamza Ouni
+ */
+public class MethodInjector {
+
+    private static final MethodType INVOKER_TYPE = MethodType.methodType(void.class, Object.class, Object[].class);
+
+    private final String signature;
+
+    private final int parameterCount;
+
+    private final MethodHandle invoker;
+
+    private MethodInjector(String signature, int parameterCount, MethodHandle invoker) {
+        this.signature = signature;
+        this.parameterCount = parameterCount;
+        this.invoker = invoker;
+    }
+
+    /**
+     * Resolve the handle of the method.
+     *
+     * @param componentClass the component class, used in the error messages
+     * @param method one of the methods returned by {@link ReflectionUtils#getInjectMethods(Class)}
+     * @return the injector for the passed method
+     */
+    public static MethodInjector create(Class<?> componentClass, Method method) {
+        String signature = ReflectionUtils.getMethodSignature(method);
+        int parameterCount = method.getParameterCount();
+        MethodHandle invoker;
+        try {
+            method.setAccessible(true);
+            invoker = MethodHandles.lookup().unreflect(method).asSpreader(Object[].class, parameterCount)
+                    .asType(INVOKER_TYPE);
+        } catch (Exception e) {
+            throw new RuntimeException(String.format("Failed to access injected method [%s] of component [%s]",
+                    signature, componentClass.getName()), e);
+        }
+
+        return new MethodInjector(signature, parameterCount, invoker);
+    }
+
+    /**
+     * @return the signature of the injected method
+     */
+    public String getSignature() {
+        return this.signature;
+    }
+
+    /**
+     * @return the number of parameters of the injected method
+     */
+    public int getParameterCount() {
+        return this.parameterCount;
+    }
+
+    /**
+     * @param instance the component instance
+     * @param values the values of the parameters
+     * @throws Exception when the method fails
+     */
+    public void inject(Object instance, Object[] values) throws Exception {
+        try {
+            this.invoker.invokeExact(instance, values);
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to call method [" + this.signature + "] in instance of ["
+                    + instance.getClass().getName() + "]", e);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package component_module;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Configures the pool of a {@link ComponentInstantiationStrategy#POOLED} component.
+ *
+ * @author Hamza Ouni
+ */
+@Documented
+@Retention(RUNTIME)
+@Target(TYPE)
+public @interface PoolConfiguration {
+
+    /**
+     * @return the maximum number of idle instances kept in the shared pool
+     */
+    int capacity() default ComponentPool.DEFAULT_CAPACITY;
+
+    /**
+     * @return true if each thread keeps the last instance it returned for its next borrow
+     */
+    boolean threadLocalCache() default false;
+}
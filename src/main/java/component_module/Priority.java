@@ -0,0 +1,30 @@
+package component_module;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Defines the position of a component in the list of the components implementing a same role, as returned by
+ * {@link ComponentManager#getInstanceList(java.lang.reflect.Type)}. Components with a lower value come first.
+ *
+ * @author Hamza Ouni
+ */
+@Documented
+@Retention(RUNTIME)
+@Target(TYPE)
+public @interface Priority {
+
+    /**
+     * The priority of the components without this annotation.
+     */
+    int DEFAULT = 1000;
+
+    /**
+     * @return the priority of the component, lower values come first
+     */
+    int value();
+}
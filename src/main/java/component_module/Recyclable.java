@@ -0,0 +1,14 @@
+package component_module;
+
+/**
+ * @author Hamza Ouni
+ */
+public interface Recyclable {
+    /**
+     * Method called by the Component Manager when a pooled component is returned to its pool, to clear its state
+     * before it's reused.
+     *
+     * @throws ComponentException if the component cannot be reused, it's then discarded
+     */
+    void recycle() throws ComponentException;
+}
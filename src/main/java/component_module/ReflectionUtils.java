@@ -1,10 +1,17 @@
 package component_module;
 
+import javax.inject.Inject;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.*;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Utility class to work with types, annotations and fields.
@@ -71,6 +78,88 @@ public class ReflectionUtils {
         return resultField;
     }
 
+    /**
+     * @param clazz the component class
+     * @return the constructor of the passed class annotated with {@link Inject} or null if there is none
+     */
+    public static Constructor<?> getInjectConstructor(Class<?> clazz) {
+        for (Constructor<?> constructor : clazz.getDeclaredConstructors()) {
+            if (constructor.isAnnotationPresent(Inject.class)) {
+                return constructor;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * @param clazz the component class
+     * @return the methods annotated with {@link Inject} declared by the passed class and its superclasses, in
+     *         injection order: the methods of a superclass before the ones of its subclasses. Methods overridden
+     *         without the annotation are not injected, and the overridden ones are injected with the subclass.
+     */
+    public static Collection<Method> getInjectMethods(Class<?> clazz) {
+        // Subclasses first, so that they override the methods of their superclasses
+        Set<String> signatures = new HashSet<String>();
+        Deque<List<Method>> classInjectMethods = new ArrayDeque<List<Method>>();
+        for (Class<?> targetClass = clazz; targetClass != null; targetClass = targetClass.getSuperclass()) {
+            List<Method> injectMethods = new ArrayList<Method>();
+            for (Method method : targetClass.getDeclaredMethods()) {
+                if (!method.isSynthetic() && !method.isBridge() && !Modifier.isStatic(method.getModifiers())
+                        && signatures.add(getMethodSignature(method)) && method.isAnnotationPresent(Inject.class)) {
+                    injectMethods.add(method);
+                }
+            }
+            classInjectMethods.push(injectMethods);
+        }
+
+        // Superclasses first, as required by JSR-330
+        List<Method> injectMethods = new ArrayList<Method>();
+        for (List<Method> methods : classInjectMethods) {
+            injectMethods.addAll(methods);
+        }
+        return injectMethods;
+    }
+
+    /**
+     * @param method the method
+     * @return the name of the method followed by the erasure of its parameter types between parentheses, for
+     *         instance {@code setName(java.lang.String)}, prefixed with the declaring class and {@code #} for private
+     *         methods since they are never overridden
+     */
+    public static String getMethodSignature(Method method) {
+        StringBuilder signature = new StringBuilder();
+        if (Modifier.isPrivate(method.getModifiers())) {
+            signature.append(method.getDeclaringClass().getName()).append('#');
+        }
+        signature.append(method.getName()).append('(');
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        for (int i = 0; i < parameterTypes.length; ++i) {
+            if (i > 0) {
+                signature.append(',');
+            }
+            signature.append(parameterTypes[i].getTypeName());
+        }
+        return signature.append(')').toString();
+    }
+
+    /**
+     * @param clazz the component class
+     * @param signature the signature of the method, as returned by {@link #getMethodSignature(Method)}
+     * @return the method returned by {@link #getInjectMethods(Class)} with the passed signature
+     * @exception NoSuchMethodException if there is no such method
+     */
+    public static Method getInjectMethod(Class<?> clazz, String signature) throws NoSuchMethodException {
+        for (Method method : getInjectMethods(clazz)) {
+            if (getMethodSignature(method).equals(signature)) {
+                return method;
+            }
+        }
+
+        throw new NoSuchMethodException("No @Inject method [" + signature + "] in class [" + clazz.getName()
+                + "] or superclasses");
+    }
+
     /**
      * Extract the main class from the passed Type.
      *
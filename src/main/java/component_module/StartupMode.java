@@ -0,0 +1,19 @@
+package component_module;
+
+/**
+ * Defines what {@link EmbedComponentManager#initializeComponents()} does after registering the components.
+ *
+ * @author Hamza Ouni
+ */
+public enum StartupMode {
+
+    /**
+     * Components are created when they are first looked up.
+     */
+    LAZY,
+
+    /**
+     * All the singletons are created right away, in parallel, following the dependency graph.
+     */
+    PARALLEL_EAGER
+}
@@ -0,0 +1,82 @@
+package component_module;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timings of the eager creation of the singletons done by {@link EmbedComponentManager#initializeSingletons()}.
+ *
+ * @author Hamza Ouni
+ */
+public class StartupReport {
+
+    private final long wallTime;
+
+    private final int levelCount;
+
+    private final Map<ComponentKey, Long> creationTimes;
+
+    private final List<ComponentKey> criticalPath;
+
+    private final long criticalPathTime;
+
+    /**
+     * @param wallTime the total time, in nanoseconds
+     * @param levelCount the number of topological levels of the dependency graph
+     * @param creationTimes the time taken to create and initialize each component, in nanoseconds
+     * @param criticalPath the chain of dependent components which took the longest time to create
+     * @param criticalPathTime the sum of the creation times of the components of the critical path, in nanoseconds
+     */
+    public StartupReport(long wallTime, int levelCount, Map<ComponentKey, Long> creationTimes,
+            List<ComponentKey> criticalPath, long criticalPathTime) {
+        this.wallTime = wallTime;
+        this.levelCount = levelCount;
+        this.creationTimes = Collections.unmodifiableMap(creationTimes);
+        this.criticalPath = Collections.unmodifiableList(criticalPath);
+        this.criticalPathTime = criticalPathTime;
+    }
+
+    /**
+     * @return the total time, in nanoseconds
+     */
+    public long getWallTime() {
+        return this.wallTime;
+    }
+
+    /**
+     * @return the number of topological levels of the dependency graph
+     */
+    public int getLevelCount() {
+        return this.levelCount;
+    }
+
+    /**
+     * @return the time taken to create and initialize each component, in nanoseconds
+     */
+    public Map<ComponentKey, Long> getCreationTimes() {
+        return this.creationTimes;
+    }
+
+    /**
+     * @return the chain of dependent components which took the longest time to create, dependencies first
+     */
+    public List<ComponentKey> getCriticalPath() {
+        return this.criticalPath;
+    }
+
+    /**
+     * @return the sum of the creation times of the components of the critical path, in nanoseconds
+     */
+    public long getCriticalPathTime() {
+        return this.criticalPathTime;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Created %d components on %d levels in %d ms, critical path of %d ms: %s",
+                this.creationTimes.size(), this.levelCount, TimeUnit.NANOSECONDS.toMillis(this.wallTime),
+                TimeUnit.NANOSECONDS.toMillis(this.criticalPathTime), this.criticalPath);
+    }
+}
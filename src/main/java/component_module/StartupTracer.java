@@ -0,0 +1,208 @@
+package component_module;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records timed spans of the work done while the component manager starts, to look at the startup as a timeline.
+ * Each span knows the thread which ran it and its parent span, which is the span open on the same thread when it
+ * started unless another one is passed explicitly. The spans are written in the Chrome trace event format, which
+ * can be loaded in chrome://tracing or Perfetto.
+ * <p>
+ * Code which may be traced holds a tracer reference which is null when tracing is disabled and opens spans with
+ * {@link #begin(StartupTracer, String, Object)}, which costs nothing in that case.
+ *
+ * @author Hamza Ouni
+ */
+public class StartupTracer {
+
+    /**
+     * The system property holding the file in which {@link EmbedComponentManager} writes the trace of its startup.
+     * Tracing is disabled when it's not set.
+     */
+    public static final String TRACE_FILE_PROPERTY = "component_module.startupTrace";
+
+    private static final Span NO_SPAN = new Span(null, 0, null, null, 0, null);
+
+    /**
+     * A span, ended by {@link #close()}.
+     */
+    public static class Span implements AutoCloseable {
+        private final StartupTracer tracer;
+
+        private final long id;
+
+        private final String category;
+
+        private final String name;
+
+        private final long parentId;
+
+        private final Thread thread;
+
+        private final long start;
+
+        private long end;
+
+        Span(StartupTracer tracer, long id, String category, String name, long parentId, Thread thread) {
+            this.tracer = tracer;
+            this.id = id;
+            this.category = category;
+            this.name = name;
+            this.parentId = parentId;
+            this.thread = thread;
+            this.start = tracer != null ? System.nanoTime() : 0;
+        }
+
+        @Override
+        public void close() {
+            if (this.tracer != null) {
+                this.end = System.nanoTime();
+                this.tracer.end(this);
+            }
+        }
+    }
+
+    private final long origin = System.nanoTime();
+
+    private final AtomicLong ids = new AtomicLong();
+
+    private final Queue<Span> spans = new ConcurrentLinkedQueue<>();
+
+    private final ThreadLocal<Deque<Span>> openSpans = ThreadLocal.withInitial(ArrayDeque::new);
+
+    /**
+     * @param tracer the tracer or null if tracing is disabled
+     * @param category the kind of work done in the span
+     * @param name what the span is about, usually a component
+     * @return the new span, a shared span doing nothing when tracing is disabled
+     */
+    public static Span begin(StartupTracer tracer, String category, Object name) {
+        return tracer != null ? tracer.begin(category, String.valueOf(name), null) : NO_SPAN;
+    }
+
+    /**
+     * @param tracer the tracer or null if tracing is disabled
+     * @param category the kind of work done in the span
+     * @param name what the span is about, usually a component
+     * @param parent the parent span, started by another thread
+     * @return the new span, a shared span doing nothing when tracing is disabled
+     */
+    public static Span begin(StartupTracer tracer, String category, Object name, Span parent) {
+        return tracer != null ? tracer.begin(category, String.valueOf(name), parent) : NO_SPAN;
+    }
+
+    private Span begin(String category, String name, Span parent) {
+        Deque<Span> threadSpans = this.openSpans.get();
+        Span actualParent = parent != null ? parent : threadSpans.peek();
+        Span span = new Span(this, this.ids.incrementAndGet(), category, name,
+                actualParent != null ? actualParent.id : 0, Thread.currentThread());
+        threadSpans.push(span);
+        return span;
+    }
+
+    private void end(Span span) {
+        Deque<Span> threadSpans = this.openSpans.get();
+        // Spans are closed in reverse order unless one was left open by mistake
+        threadSpans.removeFirstOccurrence(span);
+        this.spans.add(span);
+    }
+
+    /**
+     * @return the number of ended spans
+     */
+    public int getSpanCount() {
+        return this.spans.size();
+    }
+
+    /**
+     * @param file the file in which to write the ended spans in the Chrome trace event format
+     * @throws IOException when failing to write the file
+     */
+    public void writeChromeTrace(File file) throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null) {
+            parent.mkdirs();
+        }
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+            writeChromeTrace(writer);
+        }
+    }
+
+    /**
+     * @param writer the writer in which to write the ended spans in the Chrome trace event format
+     * @throws IOException when failing to write
+     */
+    public void writeChromeTrace(Writer writer) throws IOException {
+        List<Span> endedSpans = new ArrayList<>(this.spans);
+        Map<Long, String> threadNames = new LinkedHashMap<>();
+
+        writer.write("{\"displayTimeUnit\":\"ms\",\"traceEvents\":[");
+        String separator = "\n";
+        for (Span span : endedSpans) {
+            threadNames.putIfAbsent(span.thread.getId(), span.thread.getName());
+
+            writer.write(separator);
+            writer.write("{\"ph\":\"X\",\"pid\":1,\"tid\":");
+            writer.write(Long.toString(span.thread.getId()));
+            writer.write(",\"ts\":");
+            writer.write(toMicros(span.start - this.origin));
+            writer.write(",\"dur\":");
+            writer.write(toMicros(span.end - span.start));
+            writer.write(",\"cat\":");
+            writeString(span.category, writer);
+            writer.write(",\"name\":");
+            writeString(span.category + ' ' + span.name, writer);
+            writer.write(",\"args\":{\"id\":");
+            writer.write(Long.toString(span.id));
+            if (span.parentId != 0) {
+                writer.write(",\"parent\":");
+                writer.write(Long.toString(span.parentId));
+            }
+            writer.write("}}");
+            separator = ",\n";
+        }
+        for (Map.Entry<Long, String> thread : threadNames.entrySet()) {
+            writer.write(separator);
+            writer.write("{\"ph\":\"M\",\"pid\":1,\"tid\":");
+            writer.write(Long.toString(thread.getKey()));
+            writer.write(",\"name\":\"thread_name\",\"args\":{\"name\":");
+            writeString(thread.getValue(), writer);
+            writer.write("}}");
+        }
+        writer.write("\n]}\n");
+    }
+
+    private static String toMicros(long nanos) {
+        return String.format("%d.%03d", nanos / 1000, nanos % 1000);
+    }
+
+    private static void writeString(String value, Writer writer) throws IOException {
+        writer.write('"');
+        for (int i = 0; i < value.length(); ++i) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                writer.write('\\');
+                writer.write(c);
+            } else if (c < 0x20) {
+                writer.write(String.format("\\u%04x", (int) c));
+            } else {
+                writer.write(c);
+            }
+        }
+        writer.write('"');
+    }
+}
@@ -0,0 +1,119 @@
+package component_module;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Map structurally equal types to a single canonical instance, so that role types can be compared by identity.
+ * Classes are already canonical. Parameterized types are rebuilt as {@link DefaultParameterizedType}s, whose hash is
+ * computed once, with canonical arguments and owner. Other types keep the first instance seen.
+ * The last interned instances are remembered by identity, so that interning again a type obtained once, typically
+ * with {@link java.lang.reflect.Field#getGenericType()}, doesn't compute its structural hash.
+ * The types are only weakly referenced so that they don't keep the class loaders of their classes alive: a canonical
+ * type stays canonical as long as it's used, for instance by a registered component, and is created again otherwise.
+ *
+ * @author Hamza Ouni
+ */
+public class TypeInterner {
+
+    /**
+     * A type and its canonical instance, the type being the referent.
+     */
+    private static final class InternedType extends WeakReference<Type> {
+        final WeakReference<Type> canonicalType;
+
+        InternedType(Type type, Type canonicalType) {
+            super(type);
+            this.canonicalType = new WeakReference<>(canonicalType);
+        }
+    }
+
+    private static final int IDENTITY_CACHE_SIZE = 1024;
+
+    /**
+     * Each canonical type mapped to itself, guarded by its own lock. The value must not strongly reference the key.
+     */
+    private static final Map<Type, WeakReference<Type>> CANONICAL_TYPES = new WeakHashMap<>();
+
+    /**
+     * Direct-mapped on the identity hash code, an entry is overwritten by the next type falling in the same slot.
+     */
+    private static final AtomicReferenceArray<InternedType> IDENTITY_CACHE =
+            new AtomicReferenceArray<>(IDENTITY_CACHE_SIZE);
+
+    private TypeInterner() {
+
+    }
+
+    /**
+     * @param type the type to intern, can be null
+     * @return the canonical instance of the passed type
+     */
+    public static Type intern(Type type) {
+        if (type == null || type instanceof Class || isCanonical(type)) {
+            return type;
+        }
+
+        return internType(type);
+    }
+
+    /**
+     * Kept out of {@link #intern(Type)} so that the check for the types which are already canonical is inlined.
+     */
+    private static Type internType(Type type) {
+        int slot = System.identityHashCode(type) & (IDENTITY_CACHE_SIZE - 1);
+        InternedType interned = IDENTITY_CACHE.get(slot);
+        if (interned != null && interned.get() == type) {
+            Type canonicalType = interned.canonicalType.get();
+            if (canonicalType != null) {
+                return canonicalType;
+            }
+        }
+
+        Type canonicalType = getCanonicalType(type);
+        if (canonicalType == null) {
+            // Created outside of the lock since the arguments are interned recursively
+            Type newType = createCanonicalType(type);
+            synchronized (CANONICAL_TYPES) {
+                canonicalType = getCanonicalType(newType);
+                if (canonicalType == null) {
+                    CANONICAL_TYPES.put(newType, new WeakReference<>(newType));
+                    canonicalType = newType;
+                }
+            }
+        }
+        IDENTITY_CACHE.lazySet(slot, new InternedType(type, canonicalType));
+
+        return canonicalType;
+    }
+
+    private static Type getCanonicalType(Type type) {
+        synchronized (CANONICAL_TYPES) {
+            WeakReference<Type> reference = CANONICAL_TYPES.get(type);
+            return reference != null ? reference.get() : null;
+        }
+    }
+
+    private static boolean isCanonical(Type type) {
+        return type instanceof DefaultParameterizedType && ((DefaultParameterizedType) type).isCanonical();
+    }
+
+    private static Type createCanonicalType(Type type) {
+        if (type instanceof ParameterizedType) {
+            ParameterizedType parameterizedType = (ParameterizedType) type;
+            Type[] arguments = parameterizedType.getActualTypeArguments();
+            for (int i = 0; i < arguments.length; ++i) {
+                arguments[i] = intern(arguments[i]);
+            }
+
+            return new DefaultParameterizedType(intern(parameterizedType.getOwnerType()),
+                    (Class<?>) parameterizedType.getRawType(), arguments, true);
+        }
+
+        return type;
+    }
+}
@@ -0,0 +1,155 @@
+package component_module;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Registration of components in batches.
+ *
+ * @author Hamza Ouni
+ */
+public class BatchRegistrationTest {
+
+    private static final int BATCH_SIZE = 200;
+
+    public interface Service {
+    }
+
+    public static class ServiceImpl implements Service {
+    }
+
+    public static class OtherServiceImpl implements Service {
+    }
+
+    private static DefaultComponentDescriptor<Service> createDescriptor(String hint,
+            Class<? extends Service> implementation) {
+        DefaultComponentDescriptor<Service> descriptor = new DefaultComponentDescriptor<>();
+        descriptor.setRoleType(Service.class);
+        descriptor.setRoleHint(hint);
+        descriptor.setImplementation(implementation);
+        descriptor.setInstantiationStrategy(ComponentInstantiationStrategy.SINGLETON);
+        return descriptor;
+    }
+
+    private static List<ComponentDescriptor<?>> createBatch(int batch) {
+        List<ComponentDescriptor<?>> descriptors = new ArrayList<>();
+        for (int i = 0; i < BATCH_SIZE; ++i) {
+            descriptors.add(createDescriptor(batch + "-" + i, ServiceImpl.class));
+        }
+        return descriptors;
+    }
+
+    @Test
+    void lookupsSeeNoneOrAllOfABatch() throws Exception {
+        DefaultComponentManager manager = new DefaultComponentManager();
+        AtomicInteger registeredBatches = new AtomicInteger();
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicInteger partialBatches = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<?>> readers = new ArrayList<>();
+            for (int i = 0; i < 2; ++i) {
+                readers.add(executor.submit(() -> {
+                    while (!done.get()) {
+                        // The batch being registered, or one already registered
+                        int batch = ThreadLocalRandom.current().nextInt(registeredBatches.get() + 1);
+                        if (manager.hasComponent(Service.class, batch + "-0")
+                                && !manager.hasComponent(Service.class, batch + "-" + (BATCH_SIZE - 1))) {
+                            partialBatches.incrementAndGet();
+                        }
+                    }
+                }));
+            }
+
+            for (int batch = 0; batch < 80; ++batch) {
+                manager.registerComponents(createBatch(batch));
+                registeredBatches.incrementAndGet();
+            }
+            done.set(true);
+            for (Future<?> reader : readers) {
+                reader.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            done.set(true);
+            executor.shutdownNow();
+        }
+
+        assertEquals(0, partialBatches.get());
+    }
+
+    @Test
+    void lastDuplicateDescriptorWins() {
+        DefaultComponentManager manager = new DefaultComponentManager();
+        List<ComponentDescriptor<?>> descriptors = new ArrayList<>();
+        descriptors.add(createDescriptor("duplicate", ServiceImpl.class));
+        descriptors.add(createDescriptor("duplicate", OtherServiceImpl.class));
+
+        manager.registerComponents(descriptors);
+
+        assertSame(OtherServiceImpl.class,
+                manager.getComponentDescriptor(Service.class, "duplicate").getImplementation());
+        assertEquals(1, manager.getComponentDescriptorList(Service.class).size());
+    }
+
+    @Test
+    void batchReplacesRegisteredComponents() throws Exception {
+        DefaultComponentManager manager = new DefaultComponentManager();
+        manager.registerComponent(createDescriptor("replaced", ServiceImpl.class));
+        Object previous = manager.getInstance(Service.class, "replaced");
+
+        List<ComponentDescriptor<?>> descriptors = new ArrayList<>();
+        descriptors.add(createDescriptor("replaced", OtherServiceImpl.class));
+        manager.registerComponents(descriptors);
+
+        Object instance = manager.getInstance(Service.class, "replaced");
+        assertSame(OtherServiceImpl.class, instance.getClass());
+        assertEquals(ServiceImpl.class, previous.getClass());
+    }
+
+    private static DefaultComponentDependency<?> createDependency(String name, String hint) {
+        DefaultComponentDependency<Service> dependency = new DefaultComponentDependency<>();
+        dependency.setName(name);
+        dependency.setRoleType(Service.class);
+        dependency.setRoleHint(hint);
+        return dependency;
+    }
+
+    @Test
+    void missingDependenciesOfTheBatchAreReported() throws Exception {
+        DefaultComponentManager manager = new DefaultComponentManager();
+        DefaultComponentDescriptor<Service> descriptor = createDescriptor("dependent", ServiceImpl.class);
+        descriptor.addComponentDependency(createDependency("missing", "later"));
+        // Resolved in the same batch
+        descriptor.addComponentDependency(createDependency("present", "dependency"));
+
+        Map<ComponentKey, List<ComponentDependency<?>>> missingDependencies = manager.registerComponents(
+                Arrays.asList(descriptor, createDescriptor("dependency", ServiceImpl.class)));
+
+        assertEquals(Collections.singleton(new ComponentKey(Service.class, "dependent")),
+                missingDependencies.keySet());
+        List<ComponentDependency<?>> componentMissingDependencies = missingDependencies.values().iterator().next();
+        assertEquals(1, componentMissingDependencies.size());
+        assertEquals("missing", componentMissingDependencies.get(0).getName());
+        assertEquals(missingDependencies, manager.getMissingDependencies());
+
+        manager.registerComponent(createDescriptor("later", ServiceImpl.class));
+        assertTrue(manager.getMissingDependencies().isEmpty());
+    }
+}
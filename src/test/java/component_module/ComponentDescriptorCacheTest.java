@@ -0,0 +1,159 @@
+package component_module;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.inject.Inject;
+import java.io.File;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The binary cache of the descriptors read from the component indexes.
+ *
+ * @author Hamza Ouni
+ */
+public class ComponentDescriptorCacheTest {
+
+    public interface Cached {
+    }
+
+    public interface Other {
+    }
+
+    public static class CachedImpl implements Cached {
+        @Inject
+        List<Other> others;
+
+        /**
+         * Written as an unresolved type in the index.
+         */
+        @Inject
+        Map<String, ? extends Other> wildcard;
+
+        @Inject
+        void set(Other other) {
+        }
+
+        @Inject
+        void start() {
+        }
+    }
+
+    @TempDir
+    Path directory;
+
+    private URLClassLoader createClassLoader(String... records) throws Exception {
+        Path index = this.directory.resolve("classes").resolve(ComponentIndexReader.INDEX_RESOURCE);
+        Files.createDirectories(index.getParent());
+        Files.write(index, String.join("\n", records).getBytes(StandardCharsets.UTF_8));
+        return new URLClassLoader(new URL[] {this.directory.resolve("classes").toUri().toURL()},
+                getClass().getClassLoader());
+    }
+
+    private URLClassLoader createClassLoader() throws Exception {
+        String implementation = CachedImpl.class.getName();
+        String other = Other.class.getName();
+        return createClassLoader(
+                "component\t" + implementation + "\tdefault\tSINGLETON",
+                "role\t" + Cached.class.getName(),
+                "dependency\tothers\tdefault\tjava.util.List<" + other + ">",
+                "dependency\twildcard\tdefault\t" + ComponentIndexReader.UNRESOLVED_TYPE,
+                "method\tset(" + other + ")",
+                "dependency\tset(" + other + ")\tnamed\t" + other + "\tMETHOD\t0",
+                "method\tstart()",
+                "component\t" + implementation + "\tsecond\tPER_LOOKUP",
+                "role\t" + Cached.class.getName());
+    }
+
+    /**
+     * @return the descriptors as comparable strings
+     */
+    private static List<String> describe(List<ComponentDescriptor> descriptors) {
+        List<String> descriptions = new ArrayList<>();
+        for (ComponentDescriptor<?> descriptor : descriptors) {
+            StringBuilder description = new StringBuilder();
+            description.append(descriptor.getRoleType()).append(' ').append(descriptor.getRoleHint()).append(' ')
+                    .append(descriptor.getImplementation().getName()).append(' ')
+                    .append(descriptor.getInstantiationStrategy()).append(' ').append(descriptor.getInjectedMethods());
+            for (ComponentDependency<?> dependency : descriptor.getComponentDependencies()) {
+                description.append(" [").append(dependency.getName()).append(' ').append(dependency.getRoleHint())
+                        .append(' ').append(dependency.getRoleType()).append(' ')
+                        .append(dependency.getInjectionPointType()).append(' ')
+                        .append(dependency.getParameterIndex()).append(']');
+            }
+            descriptions.add(description.toString());
+        }
+        return descriptions;
+    }
+
+    @Test
+    void cachedDescriptorsAreTheIndexedOnes() throws Exception {
+        File file = this.directory.resolve("descriptors.cache").toFile();
+        try (URLClassLoader classLoader = createClassLoader()) {
+            List<ComponentDescriptor> indexed = new ComponentIndexReader().read(classLoader);
+            assertEquals(2, indexed.size());
+
+            new ComponentDescriptorCache(file).getDescriptors(classLoader);
+            assertTrue(file.isFile());
+
+            List<ComponentDescriptor> cached = new ComponentDescriptorCache(file)
+                    .read(ComponentDescriptorCache.computeFingerprint(classLoader), classLoader);
+            assertNotNull(cached);
+            assertEquals(describe(indexed), describe(cached));
+            ComponentDependency<?> wildcard = null;
+            for (ComponentDependency<?> dependency : ((ComponentDescriptor<?>) cached.get(0))
+                    .getComponentDependencies()) {
+                if (dependency.getName().equals("wildcard")) {
+                    wildcard = dependency;
+                }
+            }
+            assertEquals(CachedImpl.class.getDeclaredField("wildcard").getGenericType(), wildcard.getRoleType());
+        }
+    }
+
+    @Test
+    void cacheIsRebuiltWhenAnIndexChanges() throws Exception {
+        File file = this.directory.resolve("descriptors.cache").toFile();
+        try (URLClassLoader classLoader = createClassLoader()) {
+            new ComponentDescriptorCache(file).getDescriptors(classLoader);
+        }
+
+        try (URLClassLoader classLoader = createClassLoader(
+                "component\t" + CachedImpl.class.getName() + "\tdefault\tSINGLETON",
+                "role\t" + Cached.class.getName())) {
+            ComponentDescriptorCache cache = new ComponentDescriptorCache(file);
+            long fingerprint = ComponentDescriptorCache.computeFingerprint(classLoader);
+            assertNull(cache.read(fingerprint, classLoader));
+
+            assertEquals(1, cache.getDescriptors(classLoader).size());
+            assertEquals(1, cache.read(fingerprint, classLoader).size());
+        }
+    }
+
+    @Test
+    void corruptedCacheIsIgnored() throws Exception {
+        File file = this.directory.resolve("descriptors.cache").toFile();
+        try (URLClassLoader classLoader = createClassLoader()) {
+            ComponentDescriptorCache cache = new ComponentDescriptorCache(file);
+            cache.getDescriptors(classLoader);
+            byte[] bytes = Files.readAllBytes(file.toPath());
+            Files.write(file.toPath(), Arrays.copyOf(bytes, bytes.length / 2));
+
+            assertNull(cache.read(ComponentDescriptorCache.computeFingerprint(classLoader), classLoader));
+            assertEquals(2, cache.getDescriptors(classLoader).size());
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package component_module;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Release of the singletons and disposal of the components at shutdown.
+ *
+ * @author Hamza Ouni
+ */
+public class ComponentDisposalTest {
+
+    static final List<String> DISPOSALS = new CopyOnWriteArrayList<>();
+
+    @Role
+    public interface Front {
+    }
+
+    @Role
+    public interface Back {
+    }
+
+    @Component
+    @Singleton
+    public static class FrontImpl implements Front, Disposable {
+        @Inject
+        Back back;
+
+        @Override
+        public void dispose() {
+            DISPOSALS.add("front");
+        }
+    }
+
+    @Component
+    @Singleton
+    public static class BackImpl implements Back, Disposable {
+        @Override
+        public void dispose() {
+            DISPOSALS.add("back");
+        }
+    }
+
+    /**
+     * Only passed when both components are disposed at the same time.
+     */
+    static final CyclicBarrier PARALLEL_BARRIER = new CyclicBarrier(2);
+
+    static final AtomicBoolean PARALLEL = new AtomicBoolean(true);
+
+    @Role
+    public interface Left {
+    }
+
+    @Role
+    public interface Right {
+    }
+
+    @Component
+    @Singleton
+    public static class LeftImpl implements Left, Disposable {
+        @Override
+        public void dispose() {
+            awaitOther();
+        }
+    }
+
+    @Component
+    @Singleton
+    public static class RightImpl implements Right, Disposable {
+        @Override
+        public void dispose() {
+            awaitOther();
+        }
+    }
+
+    static void awaitOther() {
+        try {
+            PARALLEL_BARRIER.await(5, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            PARALLEL.set(false);
+        }
+    }
+
+    @Role
+    public interface Released {
+    }
+
+    @Component
+    @Singleton
+    public static class ReleasedImpl implements Released, Disposable {
+        static final AtomicInteger DISPOSALS = new AtomicInteger();
+
+        @Override
+        public void dispose() {
+            DISPOSALS.incrementAndGet();
+        }
+    }
+
+    @Role
+    public interface CycleStart {
+    }
+
+    @Role
+    public interface CycleEnd {
+    }
+
+    @Role
+    public interface CycleDependency {
+    }
+
+    @Role
+    public interface CycleDependent {
+    }
+
+    @Component
+    @Singleton
+    public static class CycleStartImpl implements CycleStart, Disposable {
+        @Inject
+        CycleEnd end;
+
+        @Inject
+        CycleDependency dependency;
+
+        @Override
+        public void dispose() {
+            DISPOSALS.add("start");
+        }
+    }
+
+    @Component
+    @Singleton
+    public static class CycleEndImpl implements CycleEnd, Disposable {
+        @Inject
+        CycleStart start;
+
+        @Override
+        public void dispose() {
+            DISPOSALS.add("end");
+        }
+    }
+
+    @Component
+    @Singleton
+    public static class CycleDependencyImpl implements CycleDependency, Disposable {
+        @Override
+        public void dispose() {
+            DISPOSALS.add("dependency");
+        }
+    }
+
+    @Component
+    @Singleton
+    public static class CycleDependentImpl implements CycleDependent, Disposable {
+        @Inject
+        CycleStart start;
+
+        @Override
+        public void dispose() {
+            DISPOSALS.add("dependent");
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        DISPOSALS.clear();
+    }
+
+    private static EmbedComponentManager createManager(Class<?>... componentClasses) {
+        EmbedComponentManager manager = new EmbedComponentManager();
+        ComponentManagerLoader loader = new ComponentManagerLoader();
+        for (Class<?> componentClass : componentClasses) {
+            loader.registerComponent(manager, componentClass);
+        }
+        return manager;
+    }
+
+    @Test
+    void dependentsAreDisposedBeforeTheirDependencies() throws Exception {
+        EmbedComponentManager manager = createManager(FrontImpl.class, BackImpl.class);
+        manager.getInstance(Front.class);
+
+        manager.dispose();
+
+        assertEquals(2, DISPOSALS.size());
+        assertEquals("front", DISPOSALS.get(0));
+        assertEquals("back", DISPOSALS.get(1));
+    }
+
+    @Test
+    void componentsOfACycleAreDisposedBetweenTheirDependentsAndDependencies() throws Exception {
+        // A cycle can't be injected, so register the instances
+        EmbedComponentManager manager = new EmbedComponentManager();
+        ComponentManagerLoader loader = new ComponentManagerLoader();
+        for (Object instance : new Object[] { new CycleStartImpl(), new CycleEndImpl(), new CycleDependencyImpl(),
+            new CycleDependentImpl() }) {
+            manager.registerComponent(loader.getComponentsDescriptors(instance.getClass()).get(0), instance);
+        }
+
+        manager.dispose();
+
+        assertEquals(4, DISPOSALS.size());
+        assertEquals("dependent", DISPOSALS.get(0));
+        assertEquals(new HashSet<>(Arrays.asList("start", "end")), new HashSet<>(DISPOSALS.subList(1, 3)));
+        assertEquals("dependency", DISPOSALS.get(3));
+    }
+
+    @Test
+    void independentComponentsAreDisposedInParallel() throws Exception {
+        EmbedComponentManager manager = createManager(LeftImpl.class, RightImpl.class);
+        manager.getInstance(Left.class);
+        manager.getInstance(Right.class);
+
+        manager.dispose();
+
+        assertTrue(PARALLEL.get());
+    }
+
+    @Test
+    void releasedInstanceIsDisposedAndCreatedAgain() throws Exception {
+        EmbedComponentManager manager = createManager(ReleasedImpl.class);
+        Object instance = manager.getInstance(Released.class);
+
+        manager.releaseInstance(instance);
+
+        assertEquals(1, ReleasedImpl.DISPOSALS.get());
+        assertNotSame(instance, manager.getInstance(Released.class));
+    }
+
+    @Test
+    void managerIsNeverReleased() throws Exception {
+        EmbedComponentManager manager = createManager();
+
+        manager.releaseInstance(manager);
+        assertSame(manager, manager.getInstance(ComponentManager.class));
+
+        manager.dispose();
+        assertSame(manager, manager.getInstance(ComponentManager.class));
+    }
+
+    @Test
+    void childManagerIsNeverReleased() throws Exception {
+        EmbedComponentManager manager = createManager();
+        try (ChildComponentManager child = new ChildComponentManager(manager)) {
+            child.releaseInstance(child);
+            assertSame(child, child.getInstance(ComponentManager.class));
+        }
+    }
+}
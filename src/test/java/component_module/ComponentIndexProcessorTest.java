@@ -0,0 +1,188 @@
+package component_module;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.inject.Inject;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.lang.reflect.Type;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The component index and factories generated by {@link ComponentIndexProcessor}, compiled from fixture sources
+ * since the processor doesn't run on this module.
+ *
+ * @author Hamza Ouni
+ */
+public class ComponentIndexProcessorTest {
+
+    private static final String NAME = "package fixture;\n"
+        + "@component_module.Role\n"
+        + "public interface Name {\n"
+        + "}\n";
+
+    private static final String NAME_IMPL = "package fixture;\n"
+        + "@component_module.Component\n"
+        + "@javax.inject.Singleton\n"
+        + "public class NameImpl implements Name {\n"
+        + "}\n";
+
+    private static final String GREETER_ROLE = "package fixture;\n"
+        + "@component_module.Role\n"
+        + "public interface Greeter {\n"
+        + "}\n";
+
+    private static final String ABSTRACT_GREETER = "package fixture;\n"
+        + "public abstract class AbstractGreeter {\n"
+        + "    @javax.inject.Inject\n"
+        + "    void init() {\n"
+        + "    }\n"
+        + "}\n";
+
+    private static final String GREETER_IMPL = "package fixture;\n"
+        + "import javax.inject.Inject;\n"
+        + "@component_module.Component\n"
+        + "@javax.inject.Named(\"constructor\")\n"
+        + "public class GreeterImpl extends AbstractGreeter implements Greeter {\n"
+        + "    public final Name constructorName;\n"
+        + "    @Inject\n"
+        + "    public Name fieldName;\n"
+        + "    public boolean started;\n"
+        + "    @Inject\n"
+        + "    public GreeterImpl(Name name) {\n"
+        + "        this.constructorName = name;\n"
+        + "    }\n"
+        + "    @Inject\n"
+        + "    void start() {\n"
+        + "        this.started = true;\n"
+        + "    }\n"
+        + "}\n";
+
+    private static final String PRIMITIVE_IMPL = "package fixture;\n"
+        + "@component_module.Component\n"
+        + "public class PrimitiveImpl implements Greeter {\n"
+        + "    @javax.inject.Inject\n"
+        + "    public PrimitiveImpl(int size) {\n"
+        + "    }\n"
+        + "}\n";
+
+    @TempDir
+    Path directory;
+
+    private final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+
+    /**
+     * @param sources the sources to compile, by file name
+     * @return true if the compilation succeeded
+     */
+    private boolean compile(String... sources) throws Exception {
+        Path sourceDirectory = Files.createDirectories(this.directory.resolve("src/fixture"));
+        Path classDirectory = Files.createDirectories(this.directory.resolve("classes"));
+        List<File> files = new ArrayList<>();
+        for (int i = 0; i < sources.length; i += 2) {
+            Path file = sourceDirectory.resolve(sources[i]);
+            Files.write(file, sources[i + 1].getBytes(StandardCharsets.UTF_8));
+            files.add(file.toFile());
+        }
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        try (StandardJavaFileManager fileManager =
+                compiler.getStandardFileManager(this.diagnostics, null, StandardCharsets.UTF_8)) {
+            String classPath = getLocation(Component.class) + File.pathSeparator + getLocation(Inject.class);
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, this.diagnostics,
+                    Arrays.asList("-d", classDirectory.toString(), "-classpath", classPath), null,
+                    fileManager.getJavaFileObjectsFromFiles(files));
+            task.setProcessors(Collections.singletonList(new ComponentIndexProcessor()));
+            return task.call();
+        }
+    }
+
+    private static String getLocation(Class<?> type) throws Exception {
+        return new File(type.getProtectionDomain().getCodeSource().getLocation().toURI()).getPath();
+    }
+
+    private URLClassLoader createClassLoader() throws Exception {
+        return new URLClassLoader(new URL[] {this.directory.resolve("classes").toUri().toURL()},
+                getClass().getClassLoader());
+    }
+
+    @Test
+    void indexedComponentsAreCreatedThroughTheirFactory() throws Exception {
+        assertTrue(compile("Name.java", NAME, "NameImpl.java", NAME_IMPL, "Greeter.java", GREETER_ROLE,
+                "AbstractGreeter.java", ABSTRACT_GREETER, "GreeterImpl.java", GREETER_IMPL), this.diagnostics.getDiagnostics().toString());
+
+        try (URLClassLoader classLoader = createClassLoader()) {
+            List<ComponentDescriptor> descriptors = new ComponentIndexReader().read(classLoader);
+            assertEquals(2, descriptors.size());
+
+            Class<?> greeterRole = classLoader.loadClass("fixture.Greeter");
+            Class<?> nameRole = classLoader.loadClass("fixture.Name");
+            ComponentDescriptor<?> greeterDescriptor = null;
+            for (ComponentDescriptor<?> descriptor : descriptors) {
+                if (descriptor.getRoleType() == greeterRole) {
+                    greeterDescriptor = descriptor;
+                }
+            }
+            assertNotNull(greeterDescriptor);
+            assertEquals("constructor", greeterDescriptor.getRoleHint());
+            assertEquals(ComponentInstantiationStrategy.PER_LOOKUP, greeterDescriptor.getInstantiationStrategy());
+            // Superclass methods first
+            assertEquals(Arrays.asList("init()", "start()"), new ArrayList<>(greeterDescriptor.getInjectedMethods()));
+            List<String> dependencies = new ArrayList<>();
+            for (ComponentDependency<?> dependency : greeterDescriptor.getComponentDependencies()) {
+                assertSame(nameRole, dependency.getRoleType());
+                dependencies.add(dependency.getName() + ' ' + dependency.getInjectionPointType());
+            }
+            assertEquals(Arrays.asList(ComponentDependencyFactory.CONSTRUCTOR_NAME + " CONSTRUCTOR",
+                    "fieldName FIELD"), dependencies);
+
+            Class<?> factoryClass = classLoader.loadClass(ComponentFactory.getFactoryName("fixture.GreeterImpl"));
+            ComponentFactory<?> factory = (ComponentFactory<?>) factoryClass.getConstructor().newInstance();
+            assertEquals(1, factory.getConstructorParameterCount());
+            assertEquals(0, factory.getDependencyIndex("fieldName"));
+
+            EmbedComponentManager manager = new EmbedComponentManager();
+            manager.registerComponents((List) descriptors);
+            Object greeter = manager.getInstance((Type) greeterRole, "constructor");
+            Object name = manager.getInstance((Type) nameRole);
+            assertSame(name, greeter.getClass().getField("constructorName").get(greeter));
+            assertSame(name, greeter.getClass().getField("fieldName").get(greeter));
+            assertTrue(greeter.getClass().getField("started").getBoolean(greeter));
+        }
+    }
+
+    @Test
+    void primitiveConstructorParameterIsRejected() throws Exception {
+        assertFalse(compile("Greeter.java", GREETER_ROLE, "PrimitiveImpl.java", PRIMITIVE_IMPL));
+
+        List<String> errors = new ArrayList<>();
+        for (Diagnostic<? extends JavaFileObject> diagnostic : this.diagnostics.getDiagnostics()) {
+            if (diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+                errors.add(diagnostic.getMessage(null));
+            }
+        }
+        assertEquals(1, errors.size(), errors.toString());
+        assertTrue(errors.get(0).contains("[size]"), errors.get(0));
+        assertFalse(Files.exists(this.directory.resolve("classes/fixture/PrimitiveImpl_ComponentFactory.class")));
+    }
+}
@@ -0,0 +1,124 @@
+package component_module;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Components injected through {@link Lazy}.
+ *
+ * @author Hamza Ouni
+ */
+public class ComponentLazyTest {
+
+    @Role
+    public interface Expensive {
+    }
+
+    @Component
+    public static class ExpensiveImpl implements Expensive {
+        static final AtomicInteger CREATIONS = new AtomicInteger();
+
+        static final AtomicInteger FAILURES = new AtomicInteger();
+
+        static volatile CountDownLatch started = new CountDownLatch(0);
+
+        static volatile CountDownLatch release = new CountDownLatch(0);
+
+        public ExpensiveImpl() throws InterruptedException {
+            if (FAILURES.getAndDecrement() > 0) {
+                throw new IllegalStateException("Not ready");
+            }
+            CREATIONS.incrementAndGet();
+            started.countDown();
+            release.await();
+        }
+    }
+
+    private ComponentLazy<Expensive> lazy;
+
+    @BeforeEach
+    void setUp() {
+        ExpensiveImpl.CREATIONS.set(0);
+        ExpensiveImpl.FAILURES.set(0);
+        ExpensiveImpl.started = new CountDownLatch(0);
+        ExpensiveImpl.release = new CountDownLatch(0);
+
+        EmbedComponentManager manager = new EmbedComponentManager();
+        new ComponentManagerLoader().registerComponent(manager, ExpensiveImpl.class);
+        this.lazy = new ComponentLazy<>(manager.getHandle(Expensive.class, null));
+    }
+
+    @Test
+    void componentIsLookedUpOnce() throws Exception {
+        ExpensiveImpl.release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Expensive>> lookups = new ArrayList<>();
+            for (int i = 0; i < 4; ++i) {
+                lookups.add(executor.submit(this.lazy::get));
+            }
+            ExpensiveImpl.release.countDown();
+
+            Expensive instance = this.lazy.get();
+            for (Future<Expensive> lookup : lookups) {
+                assertSame(instance, lookup.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, ExpensiveImpl.CREATIONS.get());
+    }
+
+    @Test
+    void noLockIsHeldDuringTheLookup() throws Exception {
+        ExpensiveImpl.started = new CountDownLatch(1);
+        ExpensiveImpl.release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Expensive> lookup = executor.submit(this.lazy::get);
+            assertTrue(ExpensiveImpl.started.await(5, TimeUnit.SECONDS));
+
+            // Would hang if the lookup held the monitor of the lazy
+            Future<?> locker = executor.submit(() -> {
+                synchronized (this.lazy) {
+                    return null;
+                }
+            });
+            locker.get(5, TimeUnit.SECONDS);
+
+            ExpensiveImpl.release.countDown();
+            assertTrue(lookup.get(5, TimeUnit.SECONDS) instanceof ExpensiveImpl);
+        } finally {
+            ExpensiveImpl.release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void failedLookupIsTriedAgain() {
+        ExpensiveImpl.FAILURES.set(1);
+
+        assertThrows(RuntimeException.class, this.lazy::get);
+
+        Expensive instance = this.lazy.get();
+        assertSame(instance, this.lazy.get());
+        assertEquals(1, ExpensiveImpl.CREATIONS.get());
+    }
+}
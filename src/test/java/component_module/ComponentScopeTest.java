@@ -0,0 +1,128 @@
+package component_module;
+
+import org.junit.jupiter.api.Test;
+
+import javax.inject.Inject;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Scoped components, looked up from the manager registering them or from a child manager, and per thread
+ * components.
+ *
+ * @author Hamza Ouni
+ */
+public class ComponentScopeTest {
+
+    @Role
+    public interface Scoped {
+    }
+
+    @Role
+    public interface Consumer {
+    }
+
+    @Component
+    @InstantiationStrategy(ComponentInstantiationStrategy.SCOPED)
+    public static class ScopedImpl implements Scoped, Disposable {
+        final AtomicInteger disposals = new AtomicInteger();
+
+        @Override
+        public void dispose() {
+            this.disposals.incrementAndGet();
+        }
+    }
+
+    @Component
+    public static class ConsumerImpl implements Consumer {
+        @Inject
+        Scoped scoped;
+    }
+
+    @Role
+    public interface PerThread {
+    }
+
+    @Component
+    @InstantiationStrategy(ComponentInstantiationStrategy.THREAD)
+    public static class PerThreadImpl implements PerThread {
+    }
+
+    private static EmbedComponentManager createManager(Class<?>... componentClasses) {
+        EmbedComponentManager manager = new EmbedComponentManager();
+        ComponentManagerLoader loader = new ComponentManagerLoader();
+        for (Class<?> componentClass : componentClasses) {
+            loader.registerComponent(manager, componentClass);
+        }
+        return manager;
+    }
+
+    @Test
+    void instanceIsSharedInTheScopeAndDisposedWithIt() throws Exception {
+        EmbedComponentManager manager = createManager(ScopedImpl.class);
+
+        ScopedImpl instance;
+        try (ComponentScope scope = manager.openScope()) {
+            instance = manager.getInstance(Scoped.class);
+            assertSame(instance, manager.getInstance(Scoped.class));
+        }
+
+        assertEquals(1, instance.disposals.get());
+        assertThrows(ComponentException.class, () -> manager.getInstance(Scoped.class));
+    }
+
+    @Test
+    void inheritedComponentUsesTheScopeOfTheChild() throws Exception {
+        EmbedComponentManager manager = createManager(ScopedImpl.class, ConsumerImpl.class);
+
+        try (ChildComponentManager child = new ChildComponentManager(manager)) {
+            ScopedImpl instance;
+            try (ComponentScope scope = child.openScope()) {
+                instance = child.getInstance(Scoped.class);
+                // Also when injected in another inherited component
+                assertSame(instance, child.<ConsumerImpl>getInstance(Consumer.class).scoped);
+
+                assertThrows(ComponentException.class, () -> manager.getInstance(Scoped.class));
+            }
+            assertEquals(1, instance.disposals.get());
+
+            try (ComponentScope scope = child.openScope()) {
+                assertNotSame(instance, child.getInstance(Scoped.class));
+            }
+        }
+    }
+
+    @Test
+    void childSeesTheScopeOfItsParent() throws Exception {
+        EmbedComponentManager manager = createManager(ScopedImpl.class);
+
+        try (ChildComponentManager child = new ChildComponentManager(manager);
+                ComponentScope scope = manager.openScope()) {
+            assertSame(manager.getInstance(Scoped.class), child.getInstance(Scoped.class));
+        }
+    }
+
+    @Test
+    void threadComponentHasOneInstancePerThread() throws Exception {
+        EmbedComponentManager manager = createManager(PerThreadImpl.class);
+
+        Object instance = manager.getInstance(PerThread.class);
+        assertSame(instance, manager.getInstance(PerThread.class));
+
+        CompletableFuture<Object> otherInstance = CompletableFuture.supplyAsync(() -> {
+            try {
+                return manager.getInstance(PerThread.class);
+            } catch (ComponentException e) {
+                throw new CompletionException(e);
+            }
+        });
+        assertNotSame(instance, otherInstance.get(5, TimeUnit.SECONDS));
+    }
+}
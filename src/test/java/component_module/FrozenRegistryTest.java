@@ -0,0 +1,190 @@
+package component_module;
+
+import org.junit.jupiter.api.Test;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The perfect hash of {@link FrozenRegistry} and the freeze of the component manager.
+ *
+ * @author Hamza Ouni
+ */
+public class FrozenRegistryTest {
+
+    @Role
+    public interface Frozen {
+    }
+
+    @Component
+    @Singleton
+    public static class FrozenImpl implements Frozen {
+    }
+
+    @Component
+    @Named("other")
+    @Singleton
+    public static class OtherFrozenImpl implements Frozen {
+    }
+
+    @Component
+    @Singleton
+    public static class ReplacementImpl implements Frozen {
+    }
+
+    private static final Type[] ROLES = {Runnable.class, Comparable.class,
+        new DefaultParameterizedType(null, List.class, String.class),
+        new DefaultParameterizedType(null, List.class, Integer.class)};
+
+    private static List<ComponentKey> createKeys(int count) {
+        List<ComponentKey> keys = new ArrayList<>(count);
+        for (int i = 0; i < count; ++i) {
+            keys.add(new ComponentKey(ROLES[i % ROLES.length], i < ROLES.length ? ComponentKey.DEFAULT_HINT
+                    : "hint" + i));
+        }
+        return keys;
+    }
+
+    @Test
+    void everyKeyIsFoundThroughThePerfectHash() {
+        List<ComponentKey> keys = createKeys(1000);
+        List<Integer> values = new ArrayList<>();
+        for (int i = 0; i < keys.size(); ++i) {
+            values.add(i);
+        }
+
+        FrozenRegistry<Integer> registry = new FrozenRegistry<>(keys, values);
+
+        assertTrue(registry.isPerfectHash());
+        assertEquals(1000, registry.size());
+        for (int i = 0; i < keys.size(); ++i) {
+            assertEquals(i, registry.get(keys.get(i).getRoleType(), keys.get(i).getRoleHint()));
+        }
+        // The default hint
+        assertEquals(0, registry.get(Runnable.class, null));
+        // Equal but not identical role
+        assertEquals(2, registry.get(new DefaultParameterizedType(null, List.class, String.class), null));
+        assertNull(registry.get(Runnable.class, "missing"));
+        assertNull(registry.get(Thread.class, null));
+    }
+
+    @Test
+    void keysWithTheSameHashCodeUseAHashMap() {
+        // "Aa" and "BB" have the same hash code
+        List<ComponentKey> keys = Arrays.asList(new ComponentKey(Runnable.class, "Aa"),
+                new ComponentKey(Runnable.class, "BB"));
+
+        FrozenRegistry<String> registry = new FrozenRegistry<>(keys, Arrays.asList("first", "second"));
+
+        assertFalse(registry.isPerfectHash());
+        assertEquals("first", registry.get(Runnable.class, "Aa"));
+        assertEquals("second", registry.get(Runnable.class, "BB"));
+        assertNull(registry.get(Runnable.class, null));
+    }
+
+    @Test
+    void componentIsLeftOut() {
+        List<ComponentKey> keys = createKeys(100);
+        List<Integer> values = new ArrayList<>();
+        for (int i = 0; i < keys.size(); ++i) {
+            values.add(i);
+        }
+        FrozenRegistry<Integer> registry = new FrozenRegistry<>(keys, values);
+
+        FrozenRegistry<Integer> copy = registry.without(keys.get(50));
+
+        assertEquals(99, copy.size());
+        assertNull(copy.get(keys.get(50).getRoleType(), keys.get(50).getRoleHint()));
+        assertEquals(51, copy.get(keys.get(51).getRoleType(), keys.get(51).getRoleHint()));
+        assertSame(registry, registry.without(new ComponentKey(Thread.class, null)));
+    }
+
+    @Test
+    void successiveRemovalsKeepTheOtherComponents() {
+        List<ComponentKey> keys = createKeys(200);
+        List<Integer> values = new ArrayList<>();
+        for (int i = 0; i < keys.size(); ++i) {
+            values.add(i);
+        }
+        FrozenRegistry<Integer> registry = new FrozenRegistry<>(keys, values);
+
+        FrozenRegistry<Integer> copy = registry;
+        for (int i = 0; i < keys.size(); i += 2) {
+            copy = copy.without(keys.get(i));
+        }
+
+        assertTrue(copy.isPerfectHash());
+        assertEquals(100, copy.size());
+        for (int i = 0; i < keys.size(); ++i) {
+            assertEquals(i % 2 == 0 ? null : Integer.valueOf(i),
+                    copy.get(keys.get(i).getRoleType(), keys.get(i).getRoleHint()));
+            // The original is left untouched
+            assertEquals(i, registry.get(keys.get(i).getRoleType(), keys.get(i).getRoleHint()));
+        }
+        assertSame(copy, copy.without(keys.get(0)));
+    }
+
+    @Test
+    void componentIsLeftOutOfTheHashMap() {
+        List<ComponentKey> keys = Arrays.asList(new ComponentKey(Runnable.class, "Aa"),
+                new ComponentKey(Runnable.class, "BB"));
+        FrozenRegistry<String> registry = new FrozenRegistry<>(keys, Arrays.asList("first", "second"));
+
+        FrozenRegistry<String> copy = registry.without(keys.get(0));
+
+        assertEquals(1, copy.size());
+        assertNull(copy.get(Runnable.class, "Aa"));
+        assertEquals("second", copy.get(Runnable.class, "BB"));
+        assertEquals("first", registry.get(Runnable.class, "Aa"));
+    }
+
+    private static EmbedComponentManager createManager(Class<?>... componentClasses) {
+        EmbedComponentManager manager = new EmbedComponentManager();
+        ComponentManagerLoader loader = new ComponentManagerLoader();
+        for (Class<?> componentClass : componentClasses) {
+            loader.registerComponent(manager, componentClass);
+        }
+        return manager;
+    }
+
+    @Test
+    void frozenManagerReturnsTheSingletonsAndRejectsModifications() throws Exception {
+        EmbedComponentManager manager = createManager(FrozenImpl.class, OtherFrozenImpl.class);
+        Object instance = manager.getInstance(Frozen.class);
+
+        manager.freeze();
+
+        assertTrue(manager.isFrozen());
+        assertSame(instance, manager.getInstance(Frozen.class));
+        assertTrue(manager.<Object>getInstance(Frozen.class, "other") instanceof OtherFrozenImpl);
+        assertThrows(IllegalStateException.class, () -> manager.unregisterComponent(Frozen.class, "other"));
+        assertThrows(IllegalStateException.class,
+                () -> new ComponentManagerLoader().registerComponent(manager, ReplacementImpl.class));
+    }
+
+    @Test
+    void overlayedRegistrationReplacesTheFrozenComponent() throws Exception {
+        EmbedComponentManager manager = createManager(FrozenImpl.class, OtherFrozenImpl.class);
+        manager.freeze(FrozenRegistrationPolicy.OVERLAY);
+        Object other = manager.getInstance(Frozen.class, "other");
+
+        new ComponentManagerLoader().registerComponent(manager, ReplacementImpl.class);
+
+        assertTrue(manager.<Object>getInstance(Frozen.class) instanceof ReplacementImpl);
+        assertSame(other, manager.getInstance(Frozen.class, "other"));
+
+        manager.unregisterComponent(Frozen.class, "other");
+        assertFalse(manager.hasComponent(Frozen.class, "other"));
+    }
+}
@@ -0,0 +1,151 @@
+package component_module;
+
+import org.junit.jupiter.api.Test;
+
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Injection of the {@code @Inject} methods.
+ *
+ * @author Hamza Ouni
+ */
+public class MethodInjectionTest {
+
+    @Role
+    public interface First {
+    }
+
+    @Role
+    public interface Second {
+    }
+
+    @Role
+    public interface Injected {
+    }
+
+    @Component
+    public static class FirstImpl implements First {
+    }
+
+    @Component
+    public static class SecondImpl implements Second {
+    }
+
+    @Component
+    public static class InjectedImpl implements Injected {
+        First first;
+
+        Second second;
+
+        int starts;
+
+        @Inject
+        void set(First first) {
+            this.first = first;
+        }
+
+        @Inject
+        void set(Second second) {
+            this.second = second;
+        }
+
+        @Inject
+        void start() {
+            ++this.starts;
+        }
+    }
+
+    @Role
+    public interface Ordered {
+    }
+
+    public static class BaseOrderedImpl {
+        final List<String> calls = new ArrayList<>();
+
+        @Inject
+        void initBase() {
+            this.calls.add("base");
+        }
+
+        @Inject
+        void overridden() {
+            this.calls.add("base overridden");
+        }
+    }
+
+    @Component
+    public static class OrderedImpl extends BaseOrderedImpl implements Ordered {
+        @Inject
+        void initDerived() {
+            this.calls.add("derived");
+        }
+
+        @Override
+        @Inject
+        void overridden() {
+            this.calls.add("derived overridden");
+        }
+    }
+
+    private static EmbedComponentManager createManager(Class<?>... componentClasses) {
+        EmbedComponentManager manager = new EmbedComponentManager();
+        ComponentManagerLoader loader = new ComponentManagerLoader();
+        for (Class<?> componentClass : componentClasses) {
+            loader.registerComponent(manager, componentClass);
+        }
+        return manager;
+    }
+
+    @Test
+    void methodWithoutParametersIsCalledOnce() throws Exception {
+        EmbedComponentManager manager = createManager(InjectedImpl.class, FirstImpl.class, SecondImpl.class);
+
+        InjectedImpl instance = manager.getInstance(Injected.class);
+
+        assertEquals(1, instance.starts);
+    }
+
+    @Test
+    void overloadsWithTheSameParameterCountAreBothInjected() throws Exception {
+        EmbedComponentManager manager = createManager(InjectedImpl.class, FirstImpl.class, SecondImpl.class);
+
+        InjectedImpl instance = manager.getInstance(Injected.class);
+
+        assertSame(FirstImpl.class, instance.first.getClass());
+        assertSame(SecondImpl.class, instance.second.getClass());
+    }
+
+    @Test
+    void everyInjectedMethodIsDescribed() {
+        ComponentDescriptor<?> descriptor =
+                new ComponentManagerLoader().getComponentsDescriptors(InjectedImpl.class).get(0);
+
+        // getDeclaredMethods() doesn't return the methods in any particular order
+        List<String> methods = new ArrayList<>(descriptor.getInjectedMethods());
+        Collections.sort(methods);
+
+        assertEquals(Arrays.asList("set(" + First.class.getName() + ")", "set(" + Second.class.getName() + ")",
+                "start()"), methods);
+    }
+
+    @Test
+    void superclassMethodsAreInjectedFirst() throws Exception {
+        EmbedComponentManager manager = createManager(OrderedImpl.class);
+
+        List<String> calls = manager.<OrderedImpl>getInstance(Ordered.class).calls;
+
+        assertEquals(3, calls.size());
+        assertEquals("base", calls.get(0));
+        // The order of the methods of a same class is not specified
+        assertEquals(new HashSet<>(Arrays.asList("derived", "derived overridden")),
+                new HashSet<>(calls.subList(1, 3)));
+    }
+}
@@ -0,0 +1,113 @@
+package component_module;
+
+import org.junit.jupiter.api.Test;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Collections of the components of a role injected in {@code List}, {@code Set} and {@code Map} dependencies.
+ *
+ * @author Hamza Ouni
+ */
+public class RoleViewTest {
+
+    @Role
+    public interface Handler {
+    }
+
+    @Component
+    @Named("first")
+    public static class FirstHandler implements Handler {
+    }
+
+    @Component
+    @Named("second")
+    public static class SecondHandler implements Handler {
+    }
+
+    @Component
+    @Named("third")
+    @Singleton
+    public static class ThirdHandler implements Handler {
+    }
+
+    @Role
+    public interface Holder {
+    }
+
+    @Component
+    public static class HolderImpl implements Holder {
+        @Inject
+        List<Handler> list;
+
+        @Inject
+        Set<Handler> set;
+
+        @Inject
+        Map<String, Handler> map;
+    }
+
+    private final ComponentManagerLoader loader = new ComponentManagerLoader();
+
+    private HolderImpl createHolder(EmbedComponentManager manager) throws ComponentException {
+        this.loader.registerComponent(manager, FirstHandler.class);
+        this.loader.registerComponent(manager, SecondHandler.class);
+        this.loader.registerComponent(manager, HolderImpl.class);
+        return manager.getInstance(Holder.class);
+    }
+
+    @Test
+    void perLookupElementsAreStable() throws Exception {
+        HolderImpl holder = createHolder(new EmbedComponentManager());
+
+        assertSame(holder.list.get(0), holder.list.get(0));
+        assertSame(holder.list.get(0), holder.list.iterator().next());
+
+        assertEquals(holder.set.hashCode(), holder.set.hashCode());
+        assertEquals(new HashSet<>(holder.set), holder.set);
+
+        assertSame(holder.map.get("first"), holder.map.get("first"));
+        assertSame(holder.map.get("second"), holder.map.entrySet().stream()
+                .filter(entry -> entry.getKey().equals("second")).findFirst().get().getValue());
+        assertEquals(holder.map, holder.map);
+        assertEquals(holder.map.hashCode(), holder.map.hashCode());
+    }
+
+    @Test
+    void viewsFollowTheRegistrations() throws Exception {
+        EmbedComponentManager manager = new EmbedComponentManager();
+        HolderImpl holder = createHolder(manager);
+        Object first = holder.map.get("first");
+
+        this.loader.registerComponent(manager, ThirdHandler.class);
+
+        assertEquals(3, holder.list.size());
+        assertEquals(3, holder.set.size());
+        assertSame(manager.getInstance(Handler.class, "third"), holder.map.get("third"));
+        // The elements of the previous snapshot are looked up again
+        assertNotSame(first, holder.map.get("first"));
+    }
+
+    @Test
+    void releasedSingletonIsNotKeptByTheViews() throws Exception {
+        EmbedComponentManager manager = new EmbedComponentManager();
+        HolderImpl holder = createHolder(manager);
+        this.loader.registerComponent(manager, ThirdHandler.class);
+        Object third = holder.map.get("third");
+
+        manager.releaseInstance(third);
+
+        assertNotSame(third, holder.map.get("third"));
+        assertSame(manager.getInstance(Handler.class, "third"), holder.map.get("third"));
+    }
+}
@@ -0,0 +1,178 @@
+package component_module;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Singleton instance shared by all the roles implemented by a component class.
+ *
+ * @author Hamza Ouni
+ */
+public class SharedSingletonTest {
+
+    @Role
+    public interface First {
+    }
+
+    @Role
+    public interface Second {
+    }
+
+    @Role
+    public interface Third {
+    }
+
+    @Component
+    @Singleton
+    public static class MultiRoleImpl implements First, Second, Third, Disposable {
+        static final AtomicInteger CREATIONS = new AtomicInteger();
+
+        static final AtomicInteger DISPOSALS = new AtomicInteger();
+
+        public MultiRoleImpl() {
+            CREATIONS.incrementAndGet();
+        }
+
+        @Override
+        public void dispose() {
+            DISPOSALS.incrementAndGet();
+        }
+    }
+
+    static final List<String> DISPOSALS = new CopyOnWriteArrayList<>();
+
+    @Role
+    public interface Unused {
+    }
+
+    @Role
+    public interface Used {
+    }
+
+    @Component
+    @Singleton
+    public static class SharedImpl implements Unused, Used, Disposable {
+        @Override
+        public void dispose() {
+            DISPOSALS.add("shared");
+        }
+    }
+
+    @Role
+    public interface User {
+    }
+
+    @Component
+    @Singleton
+    public static class UserImpl implements User, Disposable {
+        @Inject
+        Used used;
+
+        @Override
+        public void dispose() {
+            // Leave time to any disposal running in parallel
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            DISPOSALS.add("user");
+        }
+    }
+
+    private final ComponentManagerLoader loader = new ComponentManagerLoader();
+
+    private EmbedComponentManager manager;
+
+    @BeforeEach
+    void setUp() {
+        MultiRoleImpl.CREATIONS.set(0);
+        MultiRoleImpl.DISPOSALS.set(0);
+        DISPOSALS.clear();
+        this.manager = new EmbedComponentManager();
+    }
+
+    private void unregisterAllRoles() {
+        for (Class<?> role : new Class<?>[] { First.class, Second.class, Third.class }) {
+            this.manager.unregisterComponent(role, null);
+        }
+    }
+
+    @Test
+    void allRolesShareTheSameInstance() throws Exception {
+        this.loader.registerComponent(this.manager, MultiRoleImpl.class);
+
+        Object first = this.manager.getInstance(First.class);
+        assertSame(first, this.manager.getInstance(Second.class));
+        assertSame(first, this.manager.getInstance(Third.class));
+        assertEquals(1, MultiRoleImpl.CREATIONS.get());
+
+        this.manager.dispose();
+        assertEquals(1, MultiRoleImpl.DISPOSALS.get());
+    }
+
+    @Test
+    void instanceIsDisposedWithTheLastRole() throws Exception {
+        this.loader.registerComponent(this.manager, MultiRoleImpl.class);
+        Object instance = this.manager.getInstance(First.class);
+
+        this.manager.unregisterComponent(First.class, null);
+        assertEquals(0, MultiRoleImpl.DISPOSALS.get());
+        assertSame(instance, this.manager.getInstance(Second.class));
+
+        this.manager.unregisterComponent(Second.class, null);
+        this.manager.unregisterComponent(Third.class, null);
+        assertEquals(1, MultiRoleImpl.DISPOSALS.get());
+        assertEquals(1, MultiRoleImpl.CREATIONS.get());
+    }
+
+    @Test
+    void reregisteringKeepsTheInstance() throws Exception {
+        this.loader.registerComponent(this.manager, MultiRoleImpl.class);
+        Object instance = this.manager.getInstance(First.class);
+
+        this.loader.registerComponent(this.manager, MultiRoleImpl.class);
+
+        assertSame(instance, this.manager.getInstance(Third.class));
+        assertEquals(0, MultiRoleImpl.DISPOSALS.get());
+    }
+
+    @Test
+    void duplicatesInABatchDontKeepTheInstanceAlive() throws Exception {
+        List<ComponentDescriptor<?>> descriptors = new ArrayList<>();
+        for (int i = 0; i < 2; ++i) {
+            for (ComponentDescriptor<?> descriptor : this.loader.getComponentsDescriptors(MultiRoleImpl.class)) {
+                descriptors.add(descriptor);
+            }
+        }
+        this.manager.registerComponents(descriptors);
+        this.manager.getInstance(First.class);
+
+        unregisterAllRoles();
+
+        assertEquals(1, MultiRoleImpl.DISPOSALS.get());
+    }
+
+    @Test
+    void sharedInstanceIsDisposedAfterTheDependentsOfAllItsRoles() throws Exception {
+        this.loader.registerComponent(this.manager, SharedImpl.class);
+        this.loader.registerComponent(this.manager, UserImpl.class);
+        this.manager.getInstance(User.class);
+        this.manager.getInstance(Unused.class);
+
+        this.manager.dispose();
+
+        assertEquals(Arrays.asList("user", "shared"), DISPOSALS);
+    }
+}
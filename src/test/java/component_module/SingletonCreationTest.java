@@ -0,0 +1,285 @@
+package component_module;
+
+import org.junit.jupiter.api.Test;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Creation of singletons by concurrent threads and detection of dependency cycles.
+ *
+ * @author Hamza Ouni
+ */
+public class SingletonCreationTest {
+
+    @Role
+    public interface Counted {
+    }
+
+    @Component
+    @Singleton
+    public static class CountedImpl implements Counted {
+        static final AtomicInteger CREATIONS = new AtomicInteger();
+
+        public CountedImpl() throws InterruptedException {
+            CREATIONS.incrementAndGet();
+            Thread.sleep(50);
+        }
+    }
+
+    @Role
+    public interface Blocked {
+    }
+
+    @Component
+    @Singleton
+    public static class BlockedImpl implements Blocked {
+        static final CountDownLatch STARTED = new CountDownLatch(1);
+
+        static final CountDownLatch RELEASE = new CountDownLatch(1);
+
+        public BlockedImpl() throws InterruptedException {
+            STARTED.countDown();
+            RELEASE.await();
+        }
+    }
+
+    @Role
+    public interface Free {
+    }
+
+    @Component
+    @Singleton
+    public static class FreeImpl implements Free {
+    }
+
+    @Role
+    public interface SelfA {
+    }
+
+    @Role
+    public interface SelfB {
+    }
+
+    @Component
+    @Singleton
+    public static class SelfAImpl implements SelfA {
+        @Inject
+        SelfB b;
+    }
+
+    @Component
+    @Singleton
+    public static class SelfBImpl implements SelfB {
+        @Inject
+        SelfA a;
+    }
+
+    @Role
+    public interface CrossA {
+    }
+
+    @Role
+    public interface CrossB {
+    }
+
+    /**
+     * Makes sure both threads are creating their component before any of them resolves its dependencies.
+     */
+    static final CyclicBarrier CROSS_BARRIER = new CyclicBarrier(2);
+
+    @Component
+    @Singleton
+    public static class CrossAImpl implements CrossA {
+        @Inject
+        CrossB b;
+
+        public CrossAImpl() throws Exception {
+            CROSS_BARRIER.await(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Component
+    @Singleton
+    public static class CrossBImpl implements CrossB {
+        @Inject
+        CrossA a;
+
+        public CrossBImpl() throws Exception {
+            CROSS_BARRIER.await(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Role
+    public interface ParentSide {
+    }
+
+    @Role
+    public interface ChildSide {
+    }
+
+    /**
+     * Makes sure both threads are creating their component before any of them looks up the other one.
+     */
+    static final CyclicBarrier HIERARCHY_BARRIER = new CyclicBarrier(2);
+
+    /**
+     * The child manager, which the parent components cannot see otherwise.
+     */
+    static volatile ComponentManager childManager;
+
+    @Component
+    @Singleton
+    public static class ParentSideImpl implements ParentSide {
+        public ParentSideImpl() throws Exception {
+            HIERARCHY_BARRIER.await(5, TimeUnit.SECONDS);
+            childManager.getInstance(ChildSide.class);
+        }
+    }
+
+    @Component
+    @Singleton
+    public static class ChildSideImpl implements ChildSide {
+        @Inject
+        ParentSide parent;
+
+        public ChildSideImpl() throws Exception {
+            HIERARCHY_BARRIER.await(5, TimeUnit.SECONDS);
+        }
+    }
+
+    private static EmbedComponentManager createManager(Class<?>... componentClasses) {
+        EmbedComponentManager manager = new EmbedComponentManager();
+        ComponentManagerLoader loader = new ComponentManagerLoader();
+        for (Class<?> componentClass : componentClasses) {
+            loader.registerComponent(manager, componentClass);
+        }
+        return manager;
+    }
+
+    @Test
+    void concurrentLookupsCreateTheSingletonOnce() throws Exception {
+        EmbedComponentManager manager = createManager(CountedImpl.class);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Object>> lookups = new ArrayList<>();
+            for (int i = 0; i < 8; ++i) {
+                lookups.add(executor.submit(() -> manager.getInstance(Counted.class)));
+            }
+            Object instance = lookups.get(0).get(5, TimeUnit.SECONDS);
+            for (Future<Object> lookup : lookups) {
+                assertSame(instance, lookup.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, CountedImpl.CREATIONS.get());
+    }
+
+    @Test
+    void unrelatedSingletonIsNotBlockedByAPendingCreation() throws Exception {
+        EmbedComponentManager manager = createManager(BlockedImpl.class, FreeImpl.class);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Object> blocked = executor.submit(() -> manager.getInstance(Blocked.class));
+            assertTrue(BlockedImpl.STARTED.await(5, TimeUnit.SECONDS));
+
+            // Would hang if the creation of the blocked singleton held a lock
+            assertTrue(manager.<Object>getInstance(Free.class) instanceof FreeImpl);
+
+            BlockedImpl.RELEASE.countDown();
+            assertTrue(blocked.get(5, TimeUnit.SECONDS) instanceof BlockedImpl);
+        } finally {
+            BlockedImpl.RELEASE.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void cycleInTheSameThreadIsReported() {
+        EmbedComponentManager manager = createManager(SelfAImpl.class, SelfBImpl.class);
+
+        ComponentException exception = assertThrows(ComponentException.class, () -> manager.getInstance(SelfA.class));
+        assertTrue(getMessages(exception).contains("Dependency cycle between components"), getMessages(exception));
+    }
+
+    @Test
+    void cycleBetweenThreadsIsReportedInsteadOfDeadlocking() throws Exception {
+        EmbedComponentManager manager = createManager(CrossAImpl.class, CrossBImpl.class);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Object> a = executor.submit(() -> manager.getInstance(CrossA.class));
+            Future<Object> b = executor.submit(() -> manager.getInstance(CrossB.class));
+
+            int failures = 0;
+            for (Future<Object> lookup : Arrays.asList(a, b)) {
+                try {
+                    lookup.get(10, TimeUnit.SECONDS);
+                } catch (ExecutionException e) {
+                    assertTrue(getMessages(e.getCause()).contains("created by different threads"),
+                            getMessages(e.getCause()));
+                    ++failures;
+                }
+            }
+            assertTrue(failures > 0);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void cycleBetweenThreadsThroughAChildManagerIsReported() throws Exception {
+        EmbedComponentManager manager = createManager(ParentSideImpl.class);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try (ChildComponentManager child = new ChildComponentManager(manager)) {
+            new ComponentManagerLoader().registerComponent(child, ChildSideImpl.class);
+            childManager = child;
+
+            Future<Object> parentLookup = executor.submit(() -> manager.getInstance(ParentSide.class));
+            Future<Object> childLookup = executor.submit(() -> child.getInstance(ChildSide.class));
+
+            int failures = 0;
+            for (Future<Object> lookup : Arrays.asList(parentLookup, childLookup)) {
+                try {
+                    lookup.get(10, TimeUnit.SECONDS);
+                } catch (ExecutionException e) {
+                    assertTrue(getMessages(e.getCause()).contains("created by different threads"),
+                            getMessages(e.getCause()));
+                    ++failures;
+                }
+            }
+            assertTrue(failures > 0);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static String getMessages(Throwable throwable) {
+        StringBuilder messages = new StringBuilder();
+        for (Throwable current = throwable; current != null; current = current.getCause()) {
+            messages.append(current.getMessage()).append('\n');
+        }
+        return messages.toString();
+    }
+}
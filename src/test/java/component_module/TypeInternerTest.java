@@ -0,0 +1,81 @@
+package component_module;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Interning of the role types.
+ *
+ * @author Hamza Ouni
+ */
+public class TypeInternerTest {
+
+    /**
+     * Defined again in a class loader which can be collected.
+     */
+    public static class Plugin {
+    }
+
+    private static class IsolatedClassLoader extends ClassLoader {
+        IsolatedClassLoader() {
+            super(TypeInternerTest.class.getClassLoader());
+        }
+
+        Class<?> define(Class<?> clazz) throws Exception {
+            String resource = clazz.getName().replace('.', '/') + ".class";
+            try (InputStream stream = getParent().getResourceAsStream(resource)) {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                byte[] buffer = new byte[4096];
+                int count;
+                while ((count = stream.read(buffer)) > 0) {
+                    bytes.write(buffer, 0, count);
+                }
+                return defineClass(clazz.getName(), bytes.toByteArray(), 0, bytes.size());
+            }
+        }
+    }
+
+    @Test
+    void equalTypesAreInternedToTheSameInstance() {
+        Type first = TypeInterner.intern(new DefaultParameterizedType(null, Map.class, String.class,
+                new DefaultParameterizedType(null, List.class, Integer.class)));
+        Type second = TypeInterner.intern(new DefaultParameterizedType(null, Map.class, String.class,
+                new DefaultParameterizedType(null, List.class, Integer.class)));
+
+        assertSame(first, second);
+        assertEquals(new DefaultParameterizedType(null, Map.class, String.class,
+                new DefaultParameterizedType(null, List.class, Integer.class)), first);
+    }
+
+    @Test
+    void internedTypesDontKeepTheirClassLoaderAlive() throws Exception {
+        WeakReference<ClassLoader> classLoader = internPluginType();
+
+        for (int i = 0; i < 50 && classLoader.get() != null; ++i) {
+            System.gc();
+            Thread.sleep(10);
+        }
+
+        assertNull(classLoader.get());
+    }
+
+    private static WeakReference<ClassLoader> internPluginType() throws Exception {
+        IsolatedClassLoader classLoader = new IsolatedClassLoader();
+        Class<?> pluginClass = classLoader.define(Plugin.class);
+
+        Type type = TypeInterner.intern(new DefaultParameterizedType(null, List.class, pluginClass));
+        assertSame(type, TypeInterner.intern(new DefaultParameterizedType(null, List.class, pluginClass)));
+
+        return new WeakReference<>(classLoader);
+    }
+}